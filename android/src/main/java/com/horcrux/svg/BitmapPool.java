@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pool of mutable bitmaps shared by the svg output, masks and pattern tiles.
+ *
+ * Released bitmaps are kept by size and config until acquired again, within a byte budget,
+ * evicting (and recycling) the least recently released bitmaps first.
+ */
+class BitmapPool {
+    private static final int DEFAULT_MAX_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, 64 * 1024 * 1024);
+
+    private static final Map<Long, ArrayDeque<Bitmap>> sFree = new HashMap<>();
+    private static final LinkedHashSet<Bitmap> sLru = new LinkedHashSet<>();
+    private static int sMaxSize = DEFAULT_MAX_SIZE;
+    private static int sSize = 0;
+
+    private static long getKey(int width, int height, Bitmap.Config config) {
+        return ((long) width << 32) | ((long) height << 8) | config.ordinal();
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    /**
+     * Returns a cleared bitmap of the given size, reusing a released one when available.
+     */
+    static synchronized Bitmap acquire(int width, int height, Bitmap.Config config) {
+        ArrayDeque<Bitmap> free = sFree.get(getKey(width, height, config));
+        if (free != null) {
+            Bitmap bitmap = free.pollLast();
+            if (bitmap != null) {
+                sLru.remove(bitmap);
+                sSize -= getSize(bitmap);
+                bitmap.eraseColor(Color.TRANSPARENT);
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Returns a bitmap to the pool, the caller must not use it afterwards.
+     */
+    static synchronized void release(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || sLru.contains(bitmap)) {
+            return;
+        }
+        int size = getSize(bitmap);
+        if (size > sMaxSize) {
+            bitmap.recycle();
+            return;
+        }
+        long key = getKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayDeque<Bitmap> free = sFree.get(key);
+        if (free == null) {
+            free = new ArrayDeque<>();
+            sFree.put(key, free);
+        }
+        free.addLast(bitmap);
+        sLru.add(bitmap);
+        sSize += size;
+        trimToSize(sMaxSize);
+    }
+
+    /**
+     * Sets the byte budget of the pool, zero disables pooling.
+     */
+    static synchronized void setMaxSize(int maxSize) {
+        sMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    static synchronized void clear() {
+        trimToSize(0);
+    }
+
+    private static void trimToSize(int maxSize) {
+        Iterator<Bitmap> iterator = sLru.iterator();
+        while (sSize > maxSize && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            iterator.remove();
+            long key = getKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            ArrayDeque<Bitmap> free = sFree.get(key);
+            if (free != null) {
+                free.remove(bitmap);
+                if (free.isEmpty()) {
+                    sFree.remove(key);
+                }
+            }
+            sSize -= getSize(bitmap);
+            bitmap.recycle();
+        }
+    }
+}
@@ -25,10 +25,17 @@ import com.facebook.common.logging.FLog;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.common.ReactConstants;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 class Brush {
+    private static final int MAX_CACHED_SHADERS = 32;
+    private static final int MAX_CACHED_TILES = 8;
+
     private final BrushType mType;
     private final SVGLength[] mPoints;
-    private ReadableArray mColors;
+    private float[] mStops;
+    private int[] mStopsColors;
     private final boolean mUseObjectBoundingBox;
 
     // TODO implement pattern units
@@ -39,6 +46,92 @@ class Brush {
     private Rect mUserSpaceBoundingBox;
     private PatternView mPattern;
 
+    /**
+     * Resolved inputs of a shader, besides the brush itself: a rect, two values it was
+     * resolved with and the opacity.
+     */
+    private static final class ShaderKey {
+        float left;
+        float top;
+        float width;
+        float height;
+        float first;
+        float second;
+        float opacity;
+
+        void set(float left, float top, float width, float height, float first, float second, float opacity) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.first = first;
+            this.second = second;
+            this.opacity = opacity;
+        }
+
+        ShaderKey copy() {
+            ShaderKey key = new ShaderKey();
+            key.set(left, top, width, height, first, second, opacity);
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ShaderKey)) {
+                return false;
+            }
+            ShaderKey other = (ShaderKey) o;
+            return left == other.left && top == other.top &&
+                    width == other.width && height == other.height &&
+                    first == other.first && second == other.second &&
+                    opacity == other.opacity;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Float.floatToIntBits(left);
+            result = 31 * result + Float.floatToIntBits(top);
+            result = 31 * result + Float.floatToIntBits(width);
+            result = 31 * result + Float.floatToIntBits(height);
+            result = 31 * result + Float.floatToIntBits(first);
+            result = 31 * result + Float.floatToIntBits(second);
+            result = 31 * result + Float.floatToIntBits(opacity);
+            return result;
+        }
+    }
+
+    private static final class Tile {
+        final Bitmap bitmap;
+        final BitmapShader shader;
+
+        Tile(Bitmap bitmap, BitmapShader shader) {
+            this.bitmap = bitmap;
+            this.shader = shader;
+        }
+    }
+
+    // Shaders are immutable once created, and shared by every paint using the brush
+    private final ShaderKey mShaderKey = new ShaderKey();
+    private final LinkedHashMap<ShaderKey, Shader> mShaders = new LinkedHashMap<ShaderKey, Shader>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ShaderKey, Shader> eldest) {
+            return size() > MAX_CACHED_SHADERS;
+        }
+    };
+    private final LinkedHashMap<ShaderKey, Tile> mTiles = new LinkedHashMap<ShaderKey, Tile>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ShaderKey, Tile> eldest) {
+            if (size() > MAX_CACHED_TILES) {
+                mPattern.getSvgView().releaseBitmap(eldest.getValue().bitmap);
+                return true;
+            }
+            return false;
+        }
+    };
+
     Brush(BrushType type, SVGLength[] points, BrushUnits units) {
         mType = type;
         mPoints = points;
@@ -53,6 +146,21 @@ class Brush {
         mPattern = pattern;
     }
 
+    /**
+     * Returns the cached pattern tiles to the {@link BitmapPool}. Called once the brush has
+     * been replaced, or when a definition the pattern content may depend on changed.
+     */
+    void release() {
+        if (mTiles.isEmpty()) {
+            return;
+        }
+        SvgView svg = mPattern.getSvgView();
+        for (Tile tile : mTiles.values()) {
+            svg.releaseBitmap(tile.bitmap);
+        }
+        mTiles.clear();
+    }
+
     enum BrushType {
         LINEAR_GRADIENT,
         RADIAL_GRADIENT,
@@ -64,27 +172,56 @@ class Brush {
         USER_SPACE_ON_USE
     }
 
-    private static void parseGradientStops(ReadableArray value, int stopsCount, float[] stops, int[] stopsColors, float opacity) {
-        for (int i = 0; i < stopsCount; i++) {
-            int stopIndex = i * 2;
-            stops[i] = (float) value.getDouble(stopIndex);
-            int color = value.getInt(stopIndex + 1);
+    private static int[] applyOpacity(int[] colors, float opacity) {
+        if (opacity == 1) {
+            return colors;
+        }
+        int[] result = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            int color = colors[i];
             int alpha = color >>> 24;
             int combined = Math.round((float)alpha * opacity);
-            stopsColors[i] = combined << 24 | (color & 0x00ffffff);
+            result[i] = combined << 24 | (color & 0x00ffffff);
         }
+        return result;
     }
 
     void setUserSpaceBoundingBox(Rect userSpaceBoundingBox) {
         mUserSpaceBoundingBox = userSpaceBoundingBox;
     }
 
+    /**
+     * Converts the stops once, the brush is kept until the gradient definition changes.
+     */
     void setGradientColors(ReadableArray colors) {
-        mColors = colors;
+        int stopsCount = colors == null ? 0 : colors.size() / 2;
+        float[] stops = new float[stopsCount];
+        int[] stopsColors = new int[stopsCount];
+        for (int i = 0; i < stopsCount; i++) {
+            int stopIndex = i * 2;
+            stops[i] = (float) colors.getDouble(stopIndex);
+            stopsColors[i] = colors.getInt(stopIndex + 1);
+        }
+
+        if (stopsCount == 1) {
+            // Gradient with only one stop will make LinearGradient/RadialGradient
+            // throw. It may happen when source SVG contains only one stop or
+            // two stops at the same spot (see lib/extract/extractGradient.js).
+            // Although it's mistake SVGs like this can be produced by vector
+            // editors or other tools, so let's handle that gracefully.
+            stopsColors = new int[] { stopsColors[0], stopsColors[0] };
+            stops = new float[] { stops[0], stops[0] };
+            FLog.w(ReactConstants.TAG, "Gradient contains only on stop");
+        }
+
+        mStops = stops;
+        mStopsColors = stopsColors;
+        mShaders.clear();
     }
 
     void setGradientTransform(Matrix matrix) {
         mMatrix = matrix;
+        mShaders.clear();
     }
 
     private RectF getPaintRect(RectF pathBoundingBox) {
@@ -125,52 +262,71 @@ class Brush {
                 return;
             }
 
-            Bitmap bitmap = Bitmap.createBitmap(
-                    (int) w,
-                    (int) h,
-                    Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(bitmap);
-
-            RectF vbRect = mPattern.getViewBox();
-            if (vbRect != null && vbRect.width() > 0 && vbRect.height() > 0) {
-                RectF eRect = new RectF((float) x, (float) y, (float) w, (float) h);
-                Matrix mViewBoxMatrix = ViewBox.getTransform(vbRect, eRect, mPattern.mAlign, mPattern.mMeetOrSlice);
-                canvas.concat(mViewBoxMatrix);
-            }
-
-            if (mUseContentObjectBoundingBoxUnits) {
-                canvas.scale(width / scale, height / scale);
+            // The tile is only rendered again for a different size, content scale or opacity
+            float contentWidth = mUseContentObjectBoundingBoxUnits ? width : 0;
+            float contentHeight = mUseContentObjectBoundingBoxUnits ? height : 0;
+            mShaderKey.set((float) x, (float) y, (float) w, (float) h, contentWidth, contentHeight, opacity);
+            Tile tile = mTiles.get(mShaderKey);
+            if (tile == null) {
+                tile = renderTile(x, y, w, h, width, height, scale, opacity);
+                mTiles.put(mShaderKey.copy(), tile);
             }
+            paint.setShader(tile.shader);
+            mPattern.getSvgView().setBitmapDrawn(true);
+            return;
+        }
 
-            mPattern.draw(canvas, new Paint(), opacity);
+        if (mStops == null || mStops.length == 0) {
+            return;
+        }
 
-            Matrix patternMatrix = new Matrix();
-            if (mMatrix != null) {
-                patternMatrix.preConcat(mMatrix);
+        mShaderKey.set(rect.left, rect.top, width, height, scale, textSize, opacity);
+        Shader shader = mShaders.get(mShaderKey);
+        if (shader == null) {
+            shader = createGradient(width, height, offsetX, offsetY, scale, textSize, opacity);
+            if (shader == null) {
+                return;
             }
+            mShaders.put(mShaderKey.copy(), shader);
+        }
+        paint.setShader(shader);
+    }
 
-            BitmapShader bitmapShader = new BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
-            bitmapShader.setLocalMatrix(patternMatrix);
-            paint.setShader(bitmapShader);
-            return;
+    private Tile renderTile(double x, double y, double w, double h, float width, float height, float scale, float opacity) {
+        Bitmap bitmap = mPattern.getSvgView().acquireBitmap(
+                (int) w,
+                (int) h,
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        RectF vbRect = mPattern.getViewBox();
+        if (vbRect != null && vbRect.width() > 0 && vbRect.height() > 0) {
+            RectF eRect = new RectF((float) x, (float) y, (float) w, (float) h);
+            Matrix mViewBoxMatrix = ViewBox.getTransform(vbRect, eRect, mPattern.mAlign, mPattern.mMeetOrSlice);
+            canvas.concat(mViewBoxMatrix);
         }
 
-        int stopsCount = mColors.size() / 2;
-        int[] stopsColors = new int[stopsCount];
-        float[] stops = new float[stopsCount];
-        parseGradientStops(mColors, stopsCount, stops, stopsColors, opacity);
+        if (mUseContentObjectBoundingBoxUnits) {
+            canvas.scale(width / scale, height / scale);
+        }
 
-        if (stops.length == 1) {
-            // Gradient with only one stop will make LinearGradient/RadialGradient
-            // throw. It may happen when source SVG contains only one stop or
-            // two stops at the same spot (see lib/extract/extractGradient.js).
-            // Although it's mistake SVGs like this can be produced by vector
-            // editors or other tools, so let's handle that gracefully.
-            stopsColors = new int[] { stopsColors[0], stopsColors[0] };
-            stops = new float[] { stops[0], stops[0] };
-            FLog.w(ReactConstants.TAG, "Gradient contains only on stop");
+        mPattern.draw(canvas, new Paint(), opacity);
+
+        Matrix patternMatrix = new Matrix();
+        if (mMatrix != null) {
+            patternMatrix.preConcat(mMatrix);
         }
 
+        BitmapShader bitmapShader = new BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+        bitmapShader.setLocalMatrix(patternMatrix);
+        return new Tile(bitmap, bitmapShader);
+    }
+
+    private Shader createGradient(float width, float height, float offsetX, float offsetY,
+                                  float scale, float textSize, float opacity) {
+        int[] stopsColors = applyOpacity(mStopsColors, opacity);
+        float[] stops = mStops;
+
         if (mType == BrushType.LINEAR_GRADIENT) {
             double x1 = PropHelper.fromRelative(mPoints[0], width, offsetX, scale, textSize);
             double y1 = PropHelper.fromRelative(mPoints[1], height, offsetY, scale, textSize);
@@ -192,7 +348,7 @@ class Brush {
                 linearGradient.setLocalMatrix(m);
             }
 
-            paint.setShader(linearGradient);
+            return linearGradient;
         } else if (mType == BrushType.RADIAL_GRADIENT) {
             double rx = PropHelper.fromRelative(mPoints[2], width, 0f, scale, textSize);
             double ry = PropHelper.fromRelative(mPoints[3], height, 0f, scale, textSize);
@@ -218,7 +374,8 @@ class Brush {
             }
 
             radialGradient.setLocalMatrix(radialMatrix);
-            paint.setShader(radialGradient);
+            return radialGradient;
         }
+        return null;
     }
 }
@@ -25,6 +25,10 @@ class CircleView extends RenderableView {
     private SVGLength mCy;
     private SVGLength mR;
 
+    private float mHitCx;
+    private float mHitCy;
+    private float mHitR;
+
     public CircleView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -56,6 +60,29 @@ class CircleView extends RenderableView {
         double r = relativeOnOther(mR);
 
         path.addCircle((float) cx, (float) cy, (float) r, Path.Direction.CW);
+
+        mHitCx = (float) cx;
+        mHitCy = (float) cy;
+        mHitR = (float) r;
         return path;
     }
+
+    @Override
+    int hitTestFill(float x, float y) {
+        if (mHitR <= 0) {
+            return HIT_UNKNOWN;
+        }
+        float dx = x - mHitCx;
+        float dy = y - mHitCy;
+        return dx * dx + dy * dy <= mHitR * mHitR ? HIT_INSIDE : HIT_OUTSIDE;
+    }
+
+    @Override
+    int hitTestStroke(float x, float y) {
+        if (mHitR <= 0) {
+            return HIT_UNKNOWN;
+        }
+        float distance = (float) Math.hypot(x - mHitCx, y - mHitCy);
+        return Math.abs(distance - mHitR) <= mHitStrokeHalfWidth ? HIT_INSIDE : HIT_OUTSIDE;
+    }
 }
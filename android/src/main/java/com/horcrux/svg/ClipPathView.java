@@ -12,13 +12,25 @@ package com.horcrux.svg;
 import android.annotation.SuppressLint;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.os.Build;
+import android.view.View;
 
 import com.facebook.common.logging.FLog;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.common.ReactConstants;
 
+import javax.annotation.Nullable;
+
 @SuppressLint("ViewConstructor")
 class ClipPathView extends GroupView {
+    // Resolved clip, shared by every node clipped by this definition until it changes
+    private @Nullable Path mClipPath;
+    private @Nullable RectF mClipRect;
+    private @Nullable Rect mClipBounds;
 
     public ClipPathView(ReactContext reactContext) {
         super(reactContext);
@@ -30,11 +42,106 @@ class ClipPathView extends GroupView {
         FLog.w(ReactConstants.TAG, "RNSVG: ClipPath can't be drawn, it should be defined as a child component for `Defs` ");
     }
 
+    /**
+     * Returns the clip of the children, resolving it once for every node using this definition.
+     */
+    Path getClipPath(Canvas canvas, Paint paint) {
+        // Below KitKat the union is rasterized within the canvas bounds
+        Rect bounds = null;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT && mClipRule != CLIP_RULE_EVENODD) {
+            bounds = getSvgView().getCanvasBounds(canvas);
+        }
+        if (mClipPath != null && (bounds == null || bounds.equals(mClipBounds))) {
+            return mClipPath;
+        }
+        releaseClipPath();
+
+        Path clipPath;
+        switch (mClipRule) {
+            case CLIP_RULE_EVENODD:
+                clipPath = getPath(canvas, paint);
+                clipPath.setFillType(Path.FillType.EVEN_ODD);
+                break;
+            case CLIP_RULE_NONZERO:
+                clipPath = getUnionPath(canvas, paint);
+                break;
+            default:
+                FLog.w(ReactConstants.TAG, "RNSVG: clipRule: " + mClipRule + " unrecognized");
+                clipPath = getUnionPath(canvas, paint);
+        }
+
+        RectF rect = new RectF();
+        mClipRect = clipPath.isRect(rect) ? rect : null;
+        mClipBounds = bounds;
+        mClipPath = clipPath;
+        return clipPath;
+    }
+
+    /**
+     * Returns the clip as a rect when it is an axis aligned rectangle, which is cheaper to
+     * clip with than the path.
+     */
+    @Nullable RectF getClipRect() {
+        return mClipRect;
+    }
+
+    private Path getUnionPath(Canvas canvas, Paint paint) {
+        VirtualView single = null;
+        for (int i = 0; i < getChildCount(); i++) {
+            View node = getChildAt(i);
+            if (node instanceof MaskView || !(node instanceof VirtualView)) {
+                continue;
+            }
+            if (single != null) {
+                return getPath(canvas, paint, Region.Op.UNION);
+            }
+            single = (VirtualView) node;
+        }
+
+        // A single shape, like a rect or rounded rect, needs no boolean op only its nonzero fill
+        if (single != null && !(single instanceof GroupView)) {
+            Path path = new Path();
+            Path p = single.getPath(canvas, paint);
+            if (single.mMatrix != null) {
+                path.addPath(p, single.mMatrix);
+            } else {
+                path.addPath(p);
+            }
+            return path;
+        }
+        return getPath(canvas, paint, Region.Op.UNION);
+    }
+
+    void releaseClipPath() {
+        HitRegionCache.remove(mClipPath);
+        mClipPath = null;
+        mClipRect = null;
+        mClipBounds = null;
+    }
+
+    @Override
+    public void invalidate() {
+        releaseClipPath();
+        super.invalidate();
+    }
+
+    @Override
+    void clearChildCache() {
+        super.clearChildCache();
+        releaseClipPath();
+    }
+
     @Override
     void saveDefinition() {
         getSvgView().defineClipPath(this, mName);
     }
 
+    @Override
+    boolean addCullBoundsTo(RectF bounds) {
+        // Nothing is drawn in place
+        return true;
+    }
+
     @Override
     boolean isResponsible() {
         return false;
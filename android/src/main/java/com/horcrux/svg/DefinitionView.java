@@ -13,6 +13,7 @@ import android.annotation.SuppressLint;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.RectF;
 
 import com.facebook.react.bridge.ReactContext;
 
@@ -26,6 +27,12 @@ class DefinitionView extends VirtualView {
     @SuppressWarnings("EmptyMethod")
     void draw(Canvas canvas, Paint paint, float opacity) {}
 
+    @Override
+    boolean addCullBoundsTo(RectF bounds) {
+        // Nothing is drawn in place
+        return true;
+    }
+
     @Override
     boolean isResponsible() {
         return false;
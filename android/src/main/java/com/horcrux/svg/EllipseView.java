@@ -26,6 +26,11 @@ class EllipseView extends RenderableView {
     private SVGLength mRx;
     private SVGLength mRy;
 
+    private float mHitCx;
+    private float mHitCy;
+    private float mHitRx;
+    private float mHitRy;
+
     public EllipseView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -64,6 +69,30 @@ class EllipseView extends RenderableView {
         RectF oval = new RectF((float) (cx - rx), (float) (cy - ry), (float) (cx + rx), (float) (cy + ry));
         path.addOval(oval, Path.Direction.CW);
 
+        mHitCx = (float) cx;
+        mHitCy = (float) cy;
+        mHitRx = (float) rx;
+        mHitRy = (float) ry;
         return path;
     }
+
+    @Override
+    int hitTestFill(float x, float y) {
+        if (mHitRx <= 0 || mHitRy <= 0) {
+            return HIT_UNKNOWN;
+        }
+        float dx = (x - mHitCx) / mHitRx;
+        float dy = (y - mHitCy) / mHitRy;
+        return dx * dx + dy * dy <= 1 ? HIT_INSIDE : HIT_OUTSIDE;
+    }
+
+    @Override
+    int hitTestStroke(float x, float y) {
+        // The outline of a stroked ellipse has no closed form, only circles are tested here
+        if (mHitRx <= 0 || mHitRx != mHitRy) {
+            return HIT_UNKNOWN;
+        }
+        float distance = (float) Math.hypot(x - mHitCx, y - mHitCy);
+        return Math.abs(distance - mHitRx) <= mHitStrokeHalfWidth ? HIT_INSIDE : HIT_OUTSIDE;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of glyph outlines, keyed by typeface, text size, font feature settings
+ * and the character or grapheme cluster.
+ *
+ * Cached outlines are shared between every TSpanView and must be treated as immutable,
+ * callers add them to their own path with a transform instead of transforming them.
+ * Entries are evicted least recently used first.
+ */
+class GlyphPathCache {
+    private static final int DEFAULT_MAX_ENTRIES = 2048;
+
+    static final class Glyph {
+        final Path path;
+        final float width;
+
+        Glyph(Path path, float width) {
+            this.path = path;
+            this.width = width;
+        }
+    }
+
+    private static final LinkedHashMap<TextKey, Glyph> sEntries = new LinkedHashMap<>(256, 0.75f, true);
+    private static final TextKey sLookup = new TextKey();
+    private static final RectF sBounds = new RectF();
+    private static int sMaxEntries = DEFAULT_MAX_ENTRIES;
+    private static long sHitCount = 0;
+    private static long sMissCount = 0;
+
+    /**
+     * Returns the shared outline of the cluster as drawn by the paint, extracting it on a miss.
+     */
+    static synchronized Glyph get(Paint paint, String cluster) {
+        sLookup.set(paint, cluster);
+        Glyph glyph = sEntries.get(sLookup);
+        if (glyph != null) {
+            sHitCount++;
+        } else {
+            sMissCount++;
+            Path path = new Path();
+            paint.getTextPath(cluster, 0, cluster.length(), 0, 0, path);
+            path.computeBounds(sBounds, true);
+            glyph = new Glyph(path, sBounds.width());
+            if (sMaxEntries > 0) {
+                sEntries.put(sLookup.copy(), glyph);
+                trimToSize(sMaxEntries);
+            }
+        }
+        // Don't keep the last typeface and strings alive through the lookup key
+        sLookup.clear();
+        return glyph;
+    }
+
+    /**
+     * Sets the maximum number of cached outlines, zero disables caching.
+     */
+    static synchronized void setMaxSize(int maxEntries) {
+        sMaxEntries = maxEntries;
+        trimToSize(maxEntries);
+    }
+
+    static synchronized int getEntryCount() {
+        return sEntries.size();
+    }
+
+    static synchronized long getHitCount() {
+        return sHitCount;
+    }
+
+    static synchronized long getMissCount() {
+        return sMissCount;
+    }
+
+    private static void trimToSize(int maxEntries) {
+        Iterator<Map.Entry<TextKey, Glyph>> iterator = sEntries.entrySet().iterator();
+        while (sEntries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
@@ -10,6 +10,7 @@
 package com.horcrux.svg;
 
 import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.graphics.Paint;
@@ -24,12 +25,15 @@ import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.uimanager.annotations.ReactProp;
 
+import java.util.ArrayList;
+
 import javax.annotation.Nullable;
 
 @SuppressLint("ViewConstructor")
 class GroupView extends RenderableView {
     @Nullable ReadableMap mFont;
     GlyphContext mGlyphContext;
+    private boolean mHasNestedSvg = false;
 
     public GroupView(ReactContext reactContext) {
         super(reactContext);
@@ -42,7 +46,7 @@ class GroupView extends RenderableView {
     }
 
     void setupGlyphContext(Canvas canvas) {
-        RectF clipBounds = new RectF(canvas.getClipBounds());
+        RectF clipBounds = new RectF(getSvgView().getCanvasBounds(canvas));
         if (mMatrix != null) {
             mMatrix.mapRect(clipBounds);
         }
@@ -52,6 +56,14 @@ class GroupView extends RenderableView {
         mGlyphContext = new GlyphContext(mScale, clipBounds.width(), clipBounds.height());
     }
 
+    /**
+     * Returns true if a nested svg element was drawn by this group or its descendants,
+     * the render bounds of the group do not include it.
+     */
+    boolean hasNestedSvg() {
+        return mHasNestedSvg;
+    }
+
     GlyphContext getGlyphContext() {
         return mGlyphContext;
     }
@@ -82,11 +94,20 @@ class GroupView extends RenderableView {
         }
     }
 
+    @Override
+    @Nullable RectF getCullBounds() {
+        return mCullBounds;
+    }
+
     void drawGroup(final Canvas canvas, final Paint paint, final float opacity) {
         pushGlyphContext();
         final SvgView svg = getSvgView();
         final GroupView self = this;
         final RectF groupRect = new RectF();
+        final RectF groupBounds = new RectF();
+        final RectF cullBounds = new RectF();
+        boolean hasCullBounds = true;
+        boolean hasNestedSvg = false;
         for (int i = 0; i < getChildCount(); i++) {
             View child = getChildAt(i);
             if (child instanceof MaskView) {
@@ -99,11 +120,27 @@ class GroupView extends RenderableView {
                 }
 
                 int count = node.saveAndSetupCanvas(canvas);
-                node.render(canvas, paint, opacity * mOpacity);
+                if (node.quickReject(canvas)) {
+                    if (svg.isOutputCanvas(canvas)) {
+                        node.keepRenderBounds();
+                    }
+                } else {
+                    node.render(canvas, paint, opacity * mOpacity);
+                }
+                if (hasCullBounds) {
+                    hasCullBounds = node.addCullBoundsTo(cullBounds);
+                }
                 RectF r = node.getClientRect();
                 if (r != null) {
                     groupRect.union(r);
                 }
+                RectF b = node.getRenderBounds();
+                if (b != null) {
+                    groupBounds.union(b);
+                }
+                if (node instanceof GroupView && ((GroupView) node).hasNestedSvg()) {
+                    hasNestedSvg = true;
+                }
 
                 node.restoreCanvas(canvas, count);
 
@@ -117,12 +154,18 @@ class GroupView extends RenderableView {
             } else if (child instanceof SvgView) {
                 SvgView svgView = (SvgView)child;
                 svgView.drawChildren(canvas);
+                hasNestedSvg = true;
                 if (svgView.isResponsible()) {
                     svg.enableTouchEvents();
                 }
             }
         }
         this.setClientRect(groupRect);
+        mHasNestedSvg = hasNestedSvg;
+        mCullBounds = hasCullBounds && !hasNestedSvg ? cullBounds : null;
+        if (svg.isOutputCanvas(canvas)) {
+            this.setRenderBounds(groupBounds);
+        }
         popGlyphContext();
     }
 
@@ -152,11 +195,40 @@ class GroupView extends RenderableView {
         return mPath;
     }
 
+    /**
+     * Unions the paths into out pairwise, so every op combines paths of similar complexity
+     * instead of folding each path into one growing result. The list is consumed, its entries
+     * are replaced by the intermediate unions, the paths themselves are not modified.
+     */
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static void union(ArrayList<Path> paths, Path out) {
+        int count = paths.size();
+        if (count == 1) {
+            out.op(paths.get(0), Path.Op.UNION);
+            return;
+        }
+        while (count > 2) {
+            int merged = 0;
+            for (int i = 0; i < count; i += 2) {
+                Path p = paths.get(i);
+                if (i + 1 < count) {
+                    Path pair = new Path();
+                    pair.op(p, paths.get(i + 1), Path.Op.UNION);
+                    p = pair;
+                }
+                paths.set(merged++, p);
+            }
+            count = merged;
+        }
+        out.op(paths.get(0), paths.get(1), Path.Op.UNION);
+    }
+
     Path getPath(final Canvas canvas, final Paint paint, final Region.Op op) {
         final Path path = new Path();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
             final Path.Op pop = Path.Op.valueOf(op.name());
+            final ArrayList<Path> unions = new ArrayList<>();
             for (int i = 0; i < getChildCount(); i++) {
                 View node = getChildAt(i);
                 if (node instanceof MaskView) {
@@ -171,12 +243,23 @@ class GroupView extends RenderableView {
                     } else {
                         p2 = n.getPath(canvas, paint);
                     }
-                    p2.transform(transform);
-                    path.op(p2, pop);
+                    if (transform != null) {
+                        Path transformed = new Path();
+                        p2.transform(transform, transformed);
+                        p2 = transformed;
+                    }
+                    if (op == Region.Op.UNION) {
+                        unions.add(p2);
+                    } else {
+                        path.op(p2, pop);
+                    }
                 }
             }
+            if (!unions.isEmpty()) {
+                union(unions, path);
+            }
         } else {
-            Rect clipBounds = canvas.getClipBounds();
+            Rect clipBounds = getSvgView().getDrawBounds(canvas);
             final Region bounds = new Region(clipBounds);
             final Region r = new Region();
             for (int i = 0; i < getChildCount(); i++) {
@@ -194,7 +277,9 @@ class GroupView extends RenderableView {
                         p2 = n.getPath(canvas, paint);
                     }
                     if (transform != null) {
-                        p2.transform(transform);
+                        Path transformed = new Path();
+                        p2.transform(transform, transformed);
+                        p2 = transformed;
                     }
                     Region r2 = new Region();
                     r2.setPath(p2, bounds);
@@ -209,7 +294,7 @@ class GroupView extends RenderableView {
 
     @Override
     int hitTest(final float[] src) {
-        if (!mInvertible || !mTransformInvertible) {
+        if (!mInvertible || !mTransformInvertible || !getSvgView().mayHit(this)) {
             return -1;
         }
 
@@ -221,14 +306,8 @@ class GroupView extends RenderableView {
         int y = Math.round(dst[1]);
 
         Path clipPath = getClipPath();
-        if (clipPath != null) {
-            if (mClipRegionPath != clipPath) {
-                mClipRegionPath = clipPath;
-                mClipRegion = getRegion(clipPath);
-            }
-            if (!mClipRegion.contains(x, y)) {
-                return -1;
-            }
+        if (clipPath != null && !HitRegionCache.contains(clipPath, x, y)) {
+            return -1;
         }
 
         for (int i = getChildCount() - 1; i >= 0; i--) {
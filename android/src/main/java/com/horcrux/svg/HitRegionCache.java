@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.RegionIterator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Process wide cache of the regions rasterized from paths for hit testing.
+ *
+ * Regions are created on the first hit test of a path and evicted least recently used first
+ * once the estimated memory of all cached regions exceeds the budget.
+ */
+class HitRegionCache {
+    private static final int DEFAULT_MAX_SIZE = 2 * 1024 * 1024;
+    // Approximate size of a rectangle of the run length encoding, and of an empty region
+    private static final int RECT_SIZE = 16;
+    private static final int REGION_SIZE = 64;
+
+    private static final class Entry {
+        final Region region;
+        final int size;
+
+        Entry(Region region, int size) {
+            this.region = region;
+            this.size = size;
+        }
+    }
+
+    private static final LinkedHashMap<Path, Entry> sEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private static int sMaxSize = DEFAULT_MAX_SIZE;
+    private static int sSize = 0;
+
+    /**
+     * Returns true if the region of the path contains the point, rasterizing it on a miss.
+     */
+    static synchronized boolean contains(Path path, int x, int y) {
+        Entry entry = sEntries.get(path);
+        if (entry == null) {
+            Region region = createRegion(path);
+            entry = new Entry(region, getSize(region));
+            if (entry.size <= sMaxSize) {
+                sEntries.put(path, entry);
+                sSize += entry.size;
+                trimToSize(sMaxSize);
+            }
+        }
+        return entry.region.contains(x, y);
+    }
+
+    static synchronized void remove(@Nullable Path path) {
+        if (path == null) {
+            return;
+        }
+        Entry entry = sEntries.remove(path);
+        if (entry != null) {
+            sSize -= entry.size;
+        }
+    }
+
+    /**
+     * Sets the byte budget of the cache, zero disables caching.
+     */
+    static synchronized void setMaxSize(int maxSize) {
+        sMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    static synchronized void clear() {
+        sEntries.clear();
+        sSize = 0;
+    }
+
+    private static Region createRegion(Path path) {
+        RectF rectF = new RectF();
+        path.computeBounds(rectF, true);
+
+        Region region = new Region();
+        region.setPath(path,
+                new Region(
+                        (int) Math.floor(rectF.left),
+                        (int) Math.floor(rectF.top),
+                        (int) Math.ceil(rectF.right),
+                        (int) Math.ceil(rectF.bottom)
+                )
+        );
+
+        return region;
+    }
+
+    private static int getSize(Region region) {
+        int rects = 0;
+        RegionIterator iterator = new RegionIterator(region);
+        Rect rect = new Rect();
+        while (iterator.next(rect)) {
+            rects++;
+        }
+        return REGION_SIZE + rects * RECT_SIZE;
+    }
+
+    private static void trimToSize(int maxSize) {
+        Iterator<Map.Entry<Path, Entry>> iterator = sEntries.entrySet().iterator();
+        while (sSize > maxSize && iterator.hasNext()) {
+            sSize -= iterator.next().getValue().size;
+            iterator.remove();
+        }
+    }
+}
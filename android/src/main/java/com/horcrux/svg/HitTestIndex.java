@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Uniform grid over the device space bounds of the nodes of a {@link SvgView}, used to find
+ * the nodes that can contain a touch point before running their exact hit tests.
+ *
+ * Nodes report their bounds whenever they are rendered, and only the cells of a node whose
+ * bounds changed are updated. Nodes that were not rendered during the last update are dropped.
+ */
+class HitTestIndex {
+    private static final int CELL_SIZE = 64;
+    private static final int MAX_CELLS_PER_ENTRY = 256;
+
+    private static final class Entry {
+        final VirtualView node;
+        final RectF bounds = new RectF();
+        int left;
+        int top;
+        int right;
+        int bottom;
+        boolean oversized;
+        int generation;
+
+        Entry(VirtualView node) {
+            this.node = node;
+        }
+    }
+
+    private final Map<VirtualView, Entry> mEntries = new HashMap<>();
+    private final Map<Long, ArrayList<Entry>> mCells = new HashMap<>();
+    private final ArrayList<Entry> mOversized = new ArrayList<>();
+    private int mGeneration = 0;
+
+    private static long getKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    private static int toCell(float value) {
+        return (int) Math.floor(value / CELL_SIZE);
+    }
+
+    /**
+     * Starts a traversal, every node still rendered must be updated before {@link #endUpdate}.
+     */
+    void beginUpdate() {
+        mGeneration++;
+    }
+
+    void endUpdate() {
+        Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.generation != mGeneration) {
+                removeFromCells(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    void update(VirtualView node, @Nullable RectF bounds) {
+        if (bounds == null || bounds.isEmpty()) {
+            remove(node);
+            return;
+        }
+
+        Entry entry = mEntries.get(node);
+        if (entry == null) {
+            entry = new Entry(node);
+            mEntries.put(node, entry);
+        } else if (entry.bounds.equals(bounds)) {
+            entry.generation = mGeneration;
+            return;
+        } else {
+            removeFromCells(entry);
+        }
+        entry.generation = mGeneration;
+        entry.bounds.set(bounds);
+        addToCells(entry);
+    }
+
+    void remove(VirtualView node) {
+        Entry entry = mEntries.remove(node);
+        if (entry != null) {
+            removeFromCells(entry);
+        }
+    }
+
+    void clear() {
+        mEntries.clear();
+        mCells.clear();
+        mOversized.clear();
+    }
+
+    boolean contains(VirtualView node) {
+        return mEntries.containsKey(node);
+    }
+
+    /**
+     * Adds the nodes whose bounds contain the point to {@code out}.
+     */
+    void query(float x, float y, Set<VirtualView> out) {
+        ArrayList<Entry> cell = mCells.get(getKey(toCell(x), toCell(y)));
+        if (cell != null) {
+            for (int i = 0, size = cell.size(); i < size; i++) {
+                Entry entry = cell.get(i);
+                if (entry.bounds.contains(x, y)) {
+                    out.add(entry.node);
+                }
+            }
+        }
+        for (int i = 0, size = mOversized.size(); i < size; i++) {
+            Entry entry = mOversized.get(i);
+            if (entry.bounds.contains(x, y)) {
+                out.add(entry.node);
+            }
+        }
+    }
+
+    private void addToCells(Entry entry) {
+        RectF bounds = entry.bounds;
+        entry.left = toCell(bounds.left);
+        entry.top = toCell(bounds.top);
+        entry.right = toCell(bounds.right);
+        entry.bottom = toCell(bounds.bottom);
+
+        long cells = (long) (entry.right - entry.left + 1) * (entry.bottom - entry.top + 1);
+        entry.oversized = cells > MAX_CELLS_PER_ENTRY;
+        if (entry.oversized) {
+            mOversized.add(entry);
+            return;
+        }
+
+        for (int column = entry.left; column <= entry.right; column++) {
+            for (int row = entry.top; row <= entry.bottom; row++) {
+                long key = getKey(column, row);
+                ArrayList<Entry> cell = mCells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>();
+                    mCells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry entry) {
+        if (entry.oversized) {
+            mOversized.remove(entry);
+            return;
+        }
+
+        for (int column = entry.left; column <= entry.right; column++) {
+            for (int row = entry.top; row <= entry.bottom; row++) {
+                long key = getKey(column, row);
+                ArrayList<Entry> cell = mCells.get(key);
+                if (cell != null) {
+                    cell.remove(entry);
+                    if (cell.isEmpty()) {
+                        mCells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+}
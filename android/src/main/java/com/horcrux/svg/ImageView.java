@@ -195,16 +195,25 @@ class ImageView extends RenderableView {
 
         canvas.clipPath(getPath(canvas, paint));
 
-        Path clipPath = getClipPath(canvas, paint);
-        if (clipPath != null) {
-            canvas.clipPath(clipPath);
+        clip(canvas, paint);
+
+        // Recorded pictures outlive the image reference, which releases the bitmap
+        SvgView svg = getSvgView();
+        if (svg.isRecording()) {
+            bitmap = bitmap.copy(bitmap.getConfig(), false);
         }
 
         Paint alphaPaint = new Paint();
         alphaPaint.setAlpha((int) (opacity * 255));
         canvas.drawBitmap(bitmap, null, vbRect, alphaPaint);
-        canvas.getMatrix().mapRect(vbRect);
+        svg.setBitmapDrawn(true);
+        svg.getOutputMatrix(canvas).mapRect(vbRect);
         this.setClientRect(vbRect);
+        if (svg.isOutputCanvas(canvas)) {
+            RectF renderBounds = new RectF(vbRect);
+            renderBounds.inset(-1, -1);
+            this.setRenderBounds(renderBounds);
+        }
     }
 
     private void tryRenderFromBitmapCache(ImagePipeline imagePipeline, ImageRequest request, Canvas canvas, Paint paint, float opacity) {
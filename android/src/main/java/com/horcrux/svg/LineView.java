@@ -25,6 +25,11 @@ class LineView extends RenderableView {
     private SVGLength mX2;
     private SVGLength mY2;
 
+    private float mHitX1;
+    private float mHitY1;
+    private float mHitX2;
+    private float mHitY2;
+
     public LineView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -63,6 +68,44 @@ class LineView extends RenderableView {
 
         path.moveTo((float) x1, (float) y1);
         path.lineTo((float) x2, (float) y2);
+
+        mHitX1 = (float) x1;
+        mHitY1 = (float) y1;
+        mHitX2 = (float) x2;
+        mHitY2 = (float) y2;
         return path;
     }
+
+    @Override
+    int hitTestFill(float x, float y) {
+        return HIT_OUTSIDE;
+    }
+
+    @Override
+    int hitTestStroke(float x, float y) {
+        float dx = mHitX2 - mHitX1;
+        float dy = mHitY2 - mHitY1;
+        float length = (float) Math.hypot(dx, dy);
+        if (length == 0) {
+            return HIT_UNKNOWN;
+        }
+
+        // Distances along and across the segment, from its start
+        float px = x - mHitX1;
+        float py = y - mHitY1;
+        float along = (px * dx + py * dy) / length;
+        float across = Math.abs(px * dy - py * dx) / length;
+        float halfWidth = mHitStrokeHalfWidth;
+
+        boolean hit;
+        if (mHitStrokeCap == Paint.Cap.ROUND) {
+            float overshoot = along < 0 ? -along : (along > length ? along - length : 0);
+            hit = overshoot * overshoot + across * across <= halfWidth * halfWidth;
+        } else if (mHitStrokeCap == Paint.Cap.SQUARE) {
+            hit = along >= -halfWidth && along <= length + halfWidth && across <= halfWidth;
+        } else {
+            hit = along >= 0 && along <= length && across <= halfWidth;
+        }
+        return hit ? HIT_INSIDE : HIT_OUTSIDE;
+    }
 }
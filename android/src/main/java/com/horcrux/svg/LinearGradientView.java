@@ -37,6 +37,7 @@ class LinearGradientView extends DefinitionView {
         0, 0, 1
     };
     private Matrix mMatrix = null;
+    private Brush mBrush;
 
     public LinearGradientView(ReactContext reactContext) {
         super(reactContext);
@@ -104,15 +105,25 @@ class LinearGradientView extends DefinitionView {
         invalidate();
     }
 
+    @Override
+    public void invalidate() {
+        // Props changed, the brush and its cached shaders are created again
+        mBrush = null;
+        super.invalidate();
+    }
+
     @Override
     void saveDefinition() {
         if (mName != null) {
-            SVGLength[] points = new SVGLength[]{mX1, mY1, mX2, mY2};
-            Brush brush = new Brush(Brush.BrushType.LINEAR_GRADIENT, points, mGradientUnits);
-            brush.setGradientColors(mGradient);
-            if (mMatrix != null) {
-                brush.setGradientTransform(mMatrix);
+            if (mBrush == null) {
+                SVGLength[] points = new SVGLength[]{mX1, mY1, mX2, mY2};
+                mBrush = new Brush(Brush.BrushType.LINEAR_GRADIENT, points, mGradientUnits);
+                mBrush.setGradientColors(mGradient);
+                if (mMatrix != null) {
+                    mBrush.setGradientTransform(mMatrix);
+                }
             }
+            Brush brush = mBrush;
 
             SvgView svg = getSvgView();
             if (mGradientUnits == Brush.BrushUnits.USER_SPACE_ON_USE) {
@@ -10,7 +10,13 @@
 package com.horcrux.svg;
 
 import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorMatrixColorFilter;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
 
 import com.facebook.common.logging.FLog;
 import com.facebook.react.bridge.Dynamic;
@@ -42,6 +48,18 @@ class MaskView extends GroupView {
     };
     private Matrix mMatrix = null;
 
+    // Apply luminanceToAlpha filter primitive https://www.w3.org/TR/SVG11/filters.html#feColorMatrixElement
+    // to the mask composited over black, whose color channels are premultiplied by its alpha
+    private static final ColorMatrixColorFilter sLuminanceToAlpha = new ColorMatrixColorFilter(new float[]{
+        0, 0, 0, 0, 0,
+        0, 0, 0, 0, 0,
+        0, 0, 0, 0, 0,
+        0.299f, 0.587f, 0.144f, 0, 0
+    });
+
+    private @Nullable Bitmap mMaskBitmap;
+    private final Rect mMaskBounds = new Rect();
+
     public MaskView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -115,6 +133,50 @@ class MaskView extends GroupView {
         invalidate();
     }
 
+    /**
+     * Returns the mask as an alpha bitmap covering {@code bounds} of the canvas, rendering it
+     * again only if the mask changed or the bounds differ from the last call.
+     */
+    Bitmap getMaskBitmap(Rect bounds) {
+        if (mMaskBitmap != null && mMaskBounds.equals(bounds)) {
+            return mMaskBitmap;
+        }
+        releaseMaskBitmap();
+
+        int width = bounds.width();
+        int height = bounds.height();
+        SvgView svg = getSvgView();
+        Bitmap content = svg.acquireBitmap(width, height, Bitmap.Config.ARGB_8888);
+        content.eraseColor(Color.BLACK);
+        Canvas contentCanvas = new Canvas(content);
+        contentCanvas.translate(-bounds.left, -bounds.top);
+        draw(contentCanvas, new Paint(Paint.ANTI_ALIAS_FLAG), 1);
+
+        Bitmap mask = svg.acquireBitmap(width, height, Bitmap.Config.ALPHA_8);
+        Paint luminancePaint = new Paint();
+        luminancePaint.setColorFilter(sLuminanceToAlpha);
+        new Canvas(mask).drawBitmap(content, 0, 0, luminancePaint);
+        BitmapPool.release(content);
+
+        mMaskBitmap = mask;
+        mMaskBounds.set(bounds);
+        return mask;
+    }
+
+    void releaseMaskBitmap() {
+        if (mMaskBitmap != null) {
+            // Recorded frames may still draw the mask
+            getSvgView().releaseBitmap(mMaskBitmap);
+        }
+        mMaskBitmap = null;
+    }
+
+    @Override
+    void clearChildCache() {
+        super.clearChildCache();
+        releaseMaskBitmap();
+    }
+
     @Override
     void saveDefinition() {
         if (mName != null) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Path;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of parsed path data, keyed by the d string and scale.
+ *
+ * Cached paths are shared between every PathView with the same geometry and must be treated
+ * as immutable, callers copy them before transforming or changing the fill type.
+ * Entries are evicted least recently used first, bounded by count and by an estimate of
+ * the memory held by their vertices.
+ */
+class PathCache {
+    private static final int DEFAULT_MAX_ENTRIES = 512;
+    private static final int DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+
+    private static final class Key {
+        final String d;
+        final float scale;
+
+        Key(String d, float scale) {
+            this.d = d;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return scale == other.scale && d.equals(other.d);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * d.hashCode() + Float.floatToIntBits(scale);
+        }
+    }
+
+    private static final class Entry {
+        final Path path;
+        final int size;
+
+        Entry(Path path, int size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    private static final LinkedHashMap<Key, Entry> sEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private static final PathData sData = new PathData();
+    private static int sMaxEntries = DEFAULT_MAX_ENTRIES;
+    private static int sMaxSize = DEFAULT_MAX_SIZE;
+    private static int sSize = 0;
+    private static long sHitCount = 0;
+    private static long sMissCount = 0;
+    private static long sEvictionCount = 0;
+
+    /**
+     * Returns the shared path for the given path data, parsing it on a miss.
+     */
+    static synchronized Path get(String d, float scale) {
+        if (d == null) {
+            return new Path();
+        }
+
+        Key key = new Key(d, scale);
+        Entry entry = sEntries.get(key);
+        if (entry != null) {
+            sHitCount++;
+            return entry.path;
+        }
+        sMissCount++;
+
+        new PropHelper.PathParser(d).parse(sData);
+        Path path = sData.toPath(scale);
+        int size = sData.getByteSize() + d.length() * 2;
+        if (sMaxEntries > 0 && size <= sMaxSize) {
+            sEntries.put(key, new Entry(path, size));
+            sSize += size;
+            trimToSize(sMaxEntries, sMaxSize);
+        }
+        return path;
+    }
+
+    /**
+     * Sets the bounds of the cache, zero for either disables caching.
+     */
+    static synchronized void setMaxSize(int maxEntries, int maxSize) {
+        sMaxEntries = maxEntries;
+        sMaxSize = maxSize;
+        trimToSize(maxEntries, maxSize);
+    }
+
+    static synchronized int getEntryCount() {
+        return sEntries.size();
+    }
+
+    static synchronized int getSize() {
+        return sSize;
+    }
+
+    static synchronized long getHitCount() {
+        return sHitCount;
+    }
+
+    static synchronized long getMissCount() {
+        return sMissCount;
+    }
+
+    static synchronized long getEvictionCount() {
+        return sEvictionCount;
+    }
+
+    private static void trimToSize(int maxEntries, int maxSize) {
+        Iterator<Map.Entry<Key, Entry>> iterator = sEntries.entrySet().iterator();
+        while ((sEntries.size() > maxEntries || sSize > maxSize) && iterator.hasNext()) {
+            sSize -= iterator.next().getValue().size;
+            iterator.remove();
+            sEvictionCount++;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+/**
+ * Compact representation of parsed path data.
+ *
+ * Commands are stored as opcodes with their arguments packed in a float array, in absolute
+ * unscaled user units, and are only turned into a {@link Path} for a given scale on demand.
+ * The arrays grow as needed and are kept by {@link #reset}, so an instance can be reused
+ * for parsing without allocating.
+ */
+class PathData {
+    static final byte MOVE_TO = 0;
+    static final byte LINE_TO = 1;
+    static final byte CUBIC_TO = 2;
+    static final byte ARC_TO = 3;
+    static final byte CLOSE = 4;
+
+    private byte[] mOps;
+    private float[] mCoords;
+    private int mOpCount;
+    private int mCoordCount;
+
+    PathData() {
+        mOps = new byte[16];
+        mCoords = new float[64];
+    }
+
+    void reset() {
+        mOpCount = 0;
+        mCoordCount = 0;
+    }
+
+    /**
+     * Approximate memory held by the data, and by a path built from it.
+     */
+    int getByteSize() {
+        return 2 * (mOpCount + mCoordCount * 4);
+    }
+
+    private void addOp(byte op, int coords) {
+        if (mOpCount == mOps.length) {
+            mOps = Arrays.copyOf(mOps, Math.max(16, mOpCount * 2));
+        }
+        if (mCoordCount + coords > mCoords.length) {
+            mCoords = Arrays.copyOf(mCoords, Math.max(mCoords.length * 2, mCoordCount + coords));
+        }
+        mOps[mOpCount++] = op;
+    }
+
+    void moveTo(float x, float y) {
+        addOp(MOVE_TO, 2);
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    void lineTo(float x, float y) {
+        addOp(LINE_TO, 2);
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    void cubicTo(float c1x, float c1y, float c2x, float c2y, float ex, float ey) {
+        addOp(CUBIC_TO, 6);
+        mCoords[mCoordCount++] = c1x;
+        mCoords[mCoordCount++] = c1y;
+        mCoords[mCoordCount++] = c2x;
+        mCoords[mCoordCount++] = c2y;
+        mCoords[mCoordCount++] = ex;
+        mCoords[mCoordCount++] = ey;
+    }
+
+    /**
+     * Circular arc, as in {@link Path#arcTo(RectF, float, float)}.
+     */
+    void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        addOp(ARC_TO, 6);
+        mCoords[mCoordCount++] = left;
+        mCoords[mCoordCount++] = top;
+        mCoords[mCoordCount++] = right;
+        mCoords[mCoordCount++] = bottom;
+        mCoords[mCoordCount++] = startAngle;
+        mCoords[mCoordCount++] = sweepAngle;
+    }
+
+    void close() {
+        addOp(CLOSE, 0);
+    }
+
+    Path toPath(float scale) {
+        Path path = new Path();
+        addToPath(path, scale);
+        return path;
+    }
+
+    void addToPath(Path path, float scale) {
+        final byte[] ops = mOps;
+        final float[] c = mCoords;
+        RectF oval = null;
+        int j = 0;
+        for (int i = 0; i < mOpCount; i++) {
+            switch (ops[i]) {
+                case MOVE_TO:
+                    path.moveTo(c[j] * scale, c[j + 1] * scale);
+                    j += 2;
+                    break;
+                case LINE_TO:
+                    path.lineTo(c[j] * scale, c[j + 1] * scale);
+                    j += 2;
+                    break;
+                case CUBIC_TO:
+                    path.cubicTo(
+                            c[j] * scale, c[j + 1] * scale,
+                            c[j + 2] * scale, c[j + 3] * scale,
+                            c[j + 4] * scale, c[j + 5] * scale);
+                    j += 6;
+                    break;
+                case ARC_TO:
+                    if (oval == null) {
+                        oval = new RectF();
+                    }
+                    oval.set(c[j] * scale, c[j + 1] * scale, c[j + 2] * scale, c[j + 3] * scale);
+                    path.arcTo(oval, c[j + 4], c[j + 5]);
+                    j += 6;
+                    break;
+                case CLOSE:
+                    path.close();
+                    break;
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ class PatternView extends GroupView {
         0, 0, 1
     };
     private Matrix mMatrix = null;
+    private Brush mBrush;
 
     public PatternView(ReactContext reactContext) {
         super(reactContext);
@@ -160,17 +161,27 @@ class PatternView extends GroupView {
         return new RectF(mMinX * mScale, mMinY * mScale, (mMinX + mVbWidth) * mScale, (mMinY + mVbHeight) * mScale);
     }
 
+    @Override
+    public void invalidate() {
+        // Props changed, the brush and its cached tiles are replaced
+        mBrush = null;
+        super.invalidate();
+    }
+
     @Override
     void saveDefinition() {
         if (mName != null) {
-            SVGLength[] points = new SVGLength[]{mX,mY,mW,mH};
-            Brush brush = new Brush(Brush.BrushType.PATTERN, points, mPatternUnits);
-            brush.setContentUnits(mPatternContentUnits);
-            brush.setPattern(this);
-
-            if (mMatrix != null) {
-                brush.setGradientTransform(mMatrix);
+            if (mBrush == null) {
+                SVGLength[] points = new SVGLength[]{mX,mY,mW,mH};
+                mBrush = new Brush(Brush.BrushType.PATTERN, points, mPatternUnits);
+                mBrush.setContentUnits(mPatternContentUnits);
+                mBrush.setPattern(this);
+
+                if (mMatrix != null) {
+                    mBrush.setGradientTransform(mMatrix);
+                }
             }
+            Brush brush = mBrush;
 
             SvgView svg = getSvgView();
             if (mPatternUnits == Brush.BrushUnits.USER_SPACE_ON_USE || mPatternContentUnits == Brush.BrushUnits.USER_SPACE_ON_USE) {
@@ -9,16 +9,7 @@
 
 package com.horcrux.svg;
 
-import android.graphics.Path;
-import android.graphics.RectF;
-
-import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReadableArray;
-import com.facebook.react.bridge.WritableArray;
-import com.facebook.react.bridge.WritableMap;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Contains static helper methods for accessing props.
@@ -229,174 +220,281 @@ class PropHelper {
     }
 
     static class PathParser {
-        static private final Pattern PATH_REG_EXP = Pattern.compile("[a-df-z]|[\\-+]?(?:[\\d.]e[\\-+]?|[^\\s\\-+,a-z])+", Pattern.CASE_INSENSITIVE);
-        static private final Pattern DECIMAL_REG_EXP = Pattern.compile("(\\.\\d+)(?=-?\\.)");
+        private static final long MAX_MANTISSA = 100000000000000000L;
+        private static final double[] POW10 = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
 
-        private Matcher mMatcher;
-        private Path mPath;
+        private PathData mData;
         private final String mString;
+        private int mIndex;
+        private int mLength;
         private float mPenX = 0f;
         private float mPenY = 0f;
         private float mPenDownX;
         private float mPenDownY;
         private float mPivotX = 0f;
         private float mPivotY = 0f;
-        private final float mScale;
         private boolean mValid = true;
         private boolean mPendDownSet = false;
 
-        private String mLastCommand;
-        private String mLastValue;
-        private WritableArray mBezierCurves;
-        private WritableMap mLastStartPoint;
-
-        PathParser(String d, float scale) {
-            mScale = scale;
+        PathParser(String d) {
             mString = d;
         }
 
-        private void executeCommand(String command) {
+        private void executeCommand(char command) {
             switch (command) {
                 // moveTo command
-                case "m":
+                case 'm':
                     move(getNextFloat(), getNextFloat());
                     break;
-                case "M":
+                case 'M':
                     moveTo(getNextFloat(), getNextFloat());
                     break;
 
                 // lineTo command
-                case "l":
+                case 'l':
                     line(getNextFloat(), getNextFloat());
                     break;
-                case "L":
+                case 'L':
                     lineTo(getNextFloat(), getNextFloat());
                     break;
 
                 // horizontalTo command
-                case "h":
+                case 'h':
                     line(getNextFloat(), 0);
                     break;
-                case "H":
+                case 'H':
                     lineTo(getNextFloat(), mPenY);
                     break;
 
                 // verticalTo command
-                case "v":
+                case 'v':
                     line(0, getNextFloat());
                     break;
-                case "V":
+                case 'V':
                     lineTo(mPenX, getNextFloat());
                     break;
 
                 // curveTo command
-                case "c":
+                case 'c':
                     curve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "C":
+                case 'C':
                     curveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // smoothCurveTo command
-                case "s":
+                case 's':
                     smoothCurve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "S":
+                case 'S':
                     smoothCurveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // quadraticBezierCurveTo command
-                case "q":
+                case 'q':
                     quadraticBezierCurve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "Q":
+                case 'Q':
                     quadraticBezierCurveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // smoothQuadraticBezierCurveTo command
-                case "t":
+                case 't':
                     smoothQuadraticBezierCurve(getNextFloat(), getNextFloat());
                     break;
-                case "T":
+                case 'T':
                     smoothQuadraticBezierCurveTo(getNextFloat(), getNextFloat());
                     break;
 
                 // arcTo command
-                case "a":
-                    arc(getNextFloat(), getNextFloat(), getNextFloat(), getNextBoolean(), getNextBoolean(), getNextFloat(), getNextFloat());
+                case 'a':
+                    arc(getNextFloat(), getNextFloat(), getNextFloat(), getNextFlag(), getNextFlag(), getNextFloat(), getNextFloat());
                     break;
-                case "A":
-                    arcTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextBoolean(), getNextBoolean(), getNextFloat(), getNextFloat());
+                case 'A':
+                    arcTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFlag(), getNextFlag(), getNextFloat(), getNextFloat());
                     break;
 
                 // close command
-                case "Z":
-                case "z":
+                case 'Z':
+                case 'z':
                     close();
                     break;
                 default:
-                    mLastValue = command;
-                    executeCommand(mLastCommand);
-                    return;
+                    mValid = false;
             }
+        }
+
+        /**
+         * Parses the path data string into {@code data} in a single pass, in unscaled user units.
+         * The data is left empty when the string is invalid.
+         */
+        void parse(PathData data) {
+            mData = data;
+            data.reset();
+            mLength = mString == null ? 0 : mString.length();
+            mIndex = 0;
+
+            char lastCommand = 0;
+            while (mValid) {
+                skipSpaces();
+                if (mIndex >= mLength) {
+                    break;
+                }
+                char c = mString.charAt(mIndex);
+                char command;
+                if (isNumberStart(c)) {
+                    // Implicit repetition of the previous command, moveTo repeats as lineTo
+                    if (lastCommand == 0 || lastCommand == 'z' || lastCommand == 'Z') {
+                        mValid = false;
+                        break;
+                    }
+                    command = lastCommand;
+                } else {
+                    command = c;
+                    mIndex++;
+                }
 
-            mLastCommand = command;
+                executeCommand(command);
 
-            if (command.equals("m")) {
-                mLastCommand = "l";
-            } else if (command.equals("M")) {
-                mLastCommand = "L";
+                if (command == 'm') {
+                    lastCommand = 'l';
+                } else if (command == 'M') {
+                    lastCommand = 'L';
+                } else {
+                    lastCommand = command;
+                }
             }
+
+            if (!mValid) {
+                data.reset();
+            }
+            mData = null;
         }
 
-        Path getPath() {
-            mPath = new Path();
-            mBezierCurves = Arguments.createArray();
-            mMatcher = PATH_REG_EXP.matcher(DECIMAL_REG_EXP.matcher(mString).replaceAll("$1,"));
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+        }
 
-            while (mMatcher.find() && mValid) {
-                executeCommand(mMatcher.group());
-            }
-            return mPath;
+        private static boolean isNumberStart(char c) {
+            return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+';
         }
 
-        private WritableMap getPointMap(float x, float y) {
-            WritableMap map = Arguments.createMap();
-            map.putDouble("x", x * mScale);
-            map.putDouble("y", y * mScale);
-            return map;
+        private void skipSpaces() {
+            while (mIndex < mLength && isSpace(mString.charAt(mIndex))) {
+                mIndex++;
+            }
         }
 
-        private WritableMap clonePointMap(WritableMap map) {
-            WritableMap cloned = Arguments.createMap();
-            cloned.putDouble("x", map.getDouble("x"));
-            cloned.putDouble("y", map.getDouble("y"));
-            return cloned;
+        private void skipSeparator() {
+            skipSpaces();
+            if (mIndex < mLength && mString.charAt(mIndex) == ',') {
+                mIndex++;
+                skipSpaces();
+            }
         }
 
-        private boolean getNextBoolean() {
-            if (mMatcher.find()) {
-                return mMatcher.group().equals("1");
-            } else {
-                mValid = false;
-                mPath = new Path();
-                return false;
+        /**
+         * Arc flags are single characters and need no separator, as in "a1 1 0 00 1 1".
+         */
+        private boolean getNextFlag() {
+            skipSeparator();
+            if (mValid && mIndex < mLength) {
+                char c = mString.charAt(mIndex);
+                if (c == '0' || c == '1') {
+                    mIndex++;
+                    return c == '1';
+                }
             }
+            mValid = false;
+            return false;
         }
 
         private float getNextFloat() {
-            if (mLastValue != null) {
-                String lastValue = mLastValue;
-                mLastValue = null;
-                return Float.parseFloat(lastValue);
-            } else if (mMatcher.find()) {
-                return Float.parseFloat(mMatcher.group());
-            } else {
+            skipSeparator();
+            if (!mValid) {
+                return 0;
+            }
+
+            final String s = mString;
+            final int l = mLength;
+            int i = mIndex;
+            char c = i < l ? s.charAt(i) : 0;
+
+            boolean negative = false;
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                c = ++i < l ? s.charAt(i) : 0;
+            }
+
+            long mantissa = 0;
+            int exponent = 0;
+            boolean digits = false;
+
+            while (c >= '0' && c <= '9') {
+                if (mantissa < MAX_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exponent++;
+                }
+                digits = true;
+                c = ++i < l ? s.charAt(i) : 0;
+            }
+
+            if (c == '.') {
+                c = ++i < l ? s.charAt(i) : 0;
+                while (c >= '0' && c <= '9') {
+                    if (mantissa < MAX_MANTISSA) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        exponent--;
+                    }
+                    digits = true;
+                    c = ++i < l ? s.charAt(i) : 0;
+                }
+            }
+
+            if (!digits) {
                 mValid = false;
-                mPath = new Path();
                 return 0;
             }
+
+            if (c == 'e' || c == 'E') {
+                c = ++i < l ? s.charAt(i) : 0;
+                boolean negativeExponent = false;
+                if (c == '-' || c == '+') {
+                    negativeExponent = c == '-';
+                    c = ++i < l ? s.charAt(i) : 0;
+                }
+                if (c < '0' || c > '9') {
+                    mValid = false;
+                    return 0;
+                }
+                int e = 0;
+                while (c >= '0' && c <= '9') {
+                    if (e < 1000) {
+                        e = e * 10 + (c - '0');
+                    }
+                    c = ++i < l ? s.charAt(i) : 0;
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+
+            mIndex = i;
+
+            double value = mantissa;
+            if (exponent < 0 && -exponent < POW10.length) {
+                value /= POW10[-exponent];
+            } else if (exponent > 0 && exponent < POW10.length) {
+                value *= POW10[exponent];
+            } else if (exponent != 0) {
+                value *= Math.pow(10, exponent);
+            }
+
+            return (float) (negative ? -value : value);
         }
+
         private void move(float x, float y) {
             moveTo(x + mPenX, y + mPenY);
         }
@@ -404,12 +502,7 @@ class PropHelper {
         private void moveTo(float x, float y) {
             mPenDownX = mPivotX = mPenX = x;
             mPenDownY = mPivotY = mPenY = y;
-            mPath.moveTo(x * mScale, y * mScale);
-
-            mLastStartPoint = getPointMap(x ,y);
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(x, y));
-            mBezierCurves.pushArray(points);
+            mData.moveTo(x, y);
         }
 
         private void line(float x, float y) {
@@ -420,13 +513,7 @@ class PropHelper {
             setPenDown();
             mPivotX = mPenX = x;
             mPivotY = mPenY = y;
-            mPath.lineTo(x * mScale, y * mScale);
-
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(x, y));
-            points.pushMap(getPointMap(x, y));
-            points.pushMap(getPointMap(x, y));
-            mBezierCurves.pushArray(points);
+            mData.lineTo(x, y);
         }
 
         private void curve(float c1x, float c1y, float c2x, float c2y, float ex, float ey) {
@@ -443,13 +530,7 @@ class PropHelper {
             setPenDown();
             mPenX = ex;
             mPenY = ey;
-            mPath.cubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
-
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(c1x, c1y));
-            points.pushMap(getPointMap(c2x, c2y));
-            points.pushMap(getPointMap(ex, ey));
-            mBezierCurves.pushArray(points);
+            mData.cubicTo(c1x, c1y, c2x, c2y, ex, ey);
         }
 
         private void smoothCurve(float c1x, float c1y, float ex, float ey) {
@@ -584,13 +665,7 @@ class PropHelper {
                     sweep = -sweep;
                 }
 
-                RectF oval = new RectF(
-                        (cx - rx) * mScale,
-                        (cy - rx) * mScale,
-                        (cx + rx) * mScale,
-                        (cy + rx) * mScale);
-
-                mPath.arcTo(oval, start, sweep);
+                mData.arcTo(cx - rx, cy - rx, cx + rx, cy + rx, start, sweep);
             }
         }
 
@@ -599,13 +674,7 @@ class PropHelper {
                 mPenX = mPenDownX;
                 mPenY = mPenDownY;
                 mPendDownSet = false;
-                mPath.close();
-
-                WritableArray points = Arguments.createArray();
-                points.pushMap(clonePointMap(mLastStartPoint));
-                points.pushMap(clonePointMap(mLastStartPoint));
-                points.pushMap(clonePointMap(mLastStartPoint));
-                mBezierCurves.pushArray(points);
+                mData.close();
             }
         }
 
@@ -652,7 +721,7 @@ class PropHelper {
                 float ex = (cx + xx * x + yx * y);
                 float ey = (cy + xy * x + yy * y);
 
-                mPath.cubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
+                mData.cubicTo(c1x, c1y, c2x, c2y, ex, ey);
             }
         }
 
@@ -38,6 +38,7 @@ class RadialGradientView extends DefinitionView {
         0, 0, 1
     };
     private Matrix mMatrix = null;
+    private Brush mBrush;
 
     public RadialGradientView(ReactContext reactContext) {
         super(reactContext);
@@ -117,15 +118,25 @@ class RadialGradientView extends DefinitionView {
         invalidate();
     }
 
+    @Override
+    public void invalidate() {
+        // Props changed, the brush and its cached shaders are created again
+        mBrush = null;
+        super.invalidate();
+    }
+
     @Override
     void saveDefinition() {
         if (mName != null) {
-            SVGLength[] points = new SVGLength[]{mFx,mFy,mRx,mRy,mCx,mCy};
-            Brush brush = new Brush(Brush.BrushType.RADIAL_GRADIENT, points, mGradientUnits);
-            brush.setGradientColors(mGradient);
-            if (mMatrix != null) {
-                brush.setGradientTransform(mMatrix);
+            if (mBrush == null) {
+                SVGLength[] points = new SVGLength[]{mFx,mFy,mRx,mRy,mCx,mCy};
+                mBrush = new Brush(Brush.BrushType.RADIAL_GRADIENT, points, mGradientUnits);
+                mBrush.setGradientColors(mGradient);
+                if (mMatrix != null) {
+                    mBrush.setGradientTransform(mMatrix);
+                }
             }
+            Brush brush = mBrush;
 
             SvgView svg = getSvgView();
             if (mGradientUnits == Brush.BrushUnits.USER_SPACE_ON_USE) {
@@ -28,6 +28,13 @@ class RectView extends RenderableView {
     private SVGLength mRx;
     private SVGLength mRy;
 
+    private float mHitLeft;
+    private float mHitTop;
+    private float mHitRight;
+    private float mHitBottom;
+    private float mHitRx;
+    private float mHitRy;
+
     public RectView(ReactContext reactContext) {
         super(reactContext);
     }
@@ -96,6 +103,82 @@ class RectView extends RenderableView {
         } else {
             path.addRect((float) x, (float) y, (float) (x + w), (float) (y + h), Path.Direction.CW);
         }
+
+        mHitLeft = (float) x;
+        mHitTop = (float) y;
+        mHitRight = (float) (x + w);
+        mHitBottom = (float) (y + h);
+        mHitRx = (float) rx;
+        mHitRy = (float) ry;
         return path;
     }
+
+    @Override
+    int hitTestFill(float x, float y) {
+        if (mHitRight <= mHitLeft || mHitBottom <= mHitTop || mHitRx < 0 || mHitRy < 0) {
+            return HIT_UNKNOWN;
+        }
+        return roundRectContains(mHitLeft, mHitTop, mHitRight, mHitBottom, mHitRx, mHitRy, x, y) ?
+                HIT_INSIDE : HIT_OUTSIDE;
+    }
+
+    @Override
+    int hitTestStroke(float x, float y) {
+        if (mHitRight <= mHitLeft || mHitBottom <= mHitTop || mHitRx < 0 || mHitRy < 0) {
+            return HIT_UNKNOWN;
+        }
+
+        // The stroke lies between the rectangle grown and shrunk by half the stroke width,
+        // whose corners depend on the join for sharp corners
+        float halfWidth = mHitStrokeHalfWidth;
+        float outerRadius;
+        float innerRadius;
+        if (mHitRx > 0 || mHitRy > 0) {
+            if (mHitRx != mHitRy) {
+                return HIT_UNKNOWN;
+            }
+            outerRadius = mHitRx + halfWidth;
+            innerRadius = Math.max(mHitRx - halfWidth, 0);
+        } else if (mHitStrokeJoin == Paint.Join.ROUND) {
+            outerRadius = halfWidth;
+            innerRadius = 0;
+        } else if (mHitStrokeJoin == Paint.Join.MITER && mHitStrokeMiter >= M_SQRT2) {
+            outerRadius = 0;
+            innerRadius = 0;
+        } else {
+            return HIT_UNKNOWN;
+        }
+
+        if (!roundRectContains(mHitLeft - halfWidth, mHitTop - halfWidth, mHitRight + halfWidth,
+                mHitBottom + halfWidth, outerRadius, outerRadius, x, y)) {
+            return HIT_OUTSIDE;
+        }
+        float innerLeft = mHitLeft + halfWidth;
+        float innerTop = mHitTop + halfWidth;
+        float innerRight = mHitRight - halfWidth;
+        float innerBottom = mHitBottom - halfWidth;
+        if (innerRight <= innerLeft || innerBottom <= innerTop) {
+            return HIT_INSIDE;
+        }
+        return roundRectContains(innerLeft, innerTop, innerRight, innerBottom, innerRadius, innerRadius, x, y) ?
+                HIT_OUTSIDE : HIT_INSIDE;
+    }
+
+    private static boolean roundRectContains(float left, float top, float right, float bottom,
+                                             float rx, float ry, float x, float y) {
+        if (x < left || x > right || y < top || y > bottom) {
+            return false;
+        }
+        if (rx <= 0 || ry <= 0) {
+            return true;
+        }
+        float dx = x < left + rx ? left + rx - x : (x > right - rx ? x - right + rx : 0);
+        float dy = y < top + ry ? top + ry - y : (y > bottom - ry ? y - bottom + ry : 0);
+        if (dx == 0 || dy == 0) {
+            return true;
+        }
+        dx /= rx;
+        dy /= ry;
+        return dx * dx + dy * dy <= 1;
+    }
 }
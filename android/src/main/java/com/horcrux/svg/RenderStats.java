@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Opt-in timings of the phases of rendering a {@link SvgView}, with node and allocation counts.
+ *
+ * Phases are timed between {@link #begin} and {@link #end} and may nest, text layout
+ * for example is part of building the path of a text node. Work done between frames,
+ * such as hit testing, is accounted to the next frame.
+ */
+class RenderStats {
+    static final int PHASE_DEFINITIONS = 0;
+    static final int PHASE_PATH = 1;
+    static final int PHASE_PAINT = 2;
+    static final int PHASE_MASK = 3;
+    static final int PHASE_TEXT = 4;
+    static final int PHASE_BITMAP = 5;
+    static final int PHASE_HIT_TEST = 6;
+    private static final int PHASE_COUNT = 7;
+
+    private static final String[] PHASE_NAMES = {
+            "definitions",
+            "path",
+            "paint",
+            "mask",
+            "text",
+            "bitmap",
+            "hitTest"
+    };
+    private static final String[] TRACE_SECTIONS = {
+            "RNSVG saveDefinition",
+            "RNSVG getPath",
+            "RNSVG setupPaint",
+            "RNSVG mask",
+            "RNSVG text layout",
+            "RNSVG bitmap",
+            "RNSVG hitTest"
+    };
+
+    private static final long NOT_TIMED = -1;
+
+    private static volatile boolean sEnabled = false;
+    private static volatile boolean sTrace = false;
+
+    private final long[] mFrameTimes = new long[PHASE_COUNT];
+    private final long[] mLastFrameTimes = new long[PHASE_COUNT];
+    private final long[] mTotalTimes = new long[PHASE_COUNT];
+    private long mFrameStart = NOT_TIMED;
+    private long mLastFrameTime;
+    private long mTotalFrameTime;
+    private int mFrameCount;
+
+    private int mFrameNodes;
+    private int mFramePaths;
+    private int mFrameBitmaps;
+    private int mLastFrameNodes;
+    private int mLastFramePaths;
+    private int mLastFrameBitmaps;
+    private long mTotalPaths;
+    private long mTotalBitmaps;
+
+    /**
+     * Enables the collection of timings for all svg views, and optionally emits systrace
+     * sections for the phases.
+     */
+    static void setEnabled(boolean enabled, boolean trace) {
+        sEnabled = enabled;
+        sTrace = trace && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    long begin(int phase) {
+        if (!sEnabled) {
+            return NOT_TIMED;
+        }
+        if (sTrace) {
+            Trace.beginSection(TRACE_SECTIONS[phase]);
+        }
+        return System.nanoTime();
+    }
+
+    void end(int phase, long start) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        mFrameTimes[phase] += System.nanoTime() - start;
+        if (sTrace) {
+            Trace.endSection();
+        }
+    }
+
+    void countNode() {
+        if (sEnabled) {
+            mFrameNodes++;
+        }
+    }
+
+    void countPath() {
+        if (sEnabled) {
+            mFramePaths++;
+        }
+    }
+
+    void countBitmap() {
+        if (sEnabled) {
+            mFrameBitmaps++;
+        }
+    }
+
+    void beginFrame() {
+        mFrameStart = sEnabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    void endFrame() {
+        if (mFrameStart == NOT_TIMED) {
+            return;
+        }
+        mLastFrameTime = System.nanoTime() - mFrameStart;
+        mTotalFrameTime += mLastFrameTime;
+        mFrameCount++;
+        mFrameStart = NOT_TIMED;
+
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mLastFrameTimes[i] = mFrameTimes[i];
+            mTotalTimes[i] += mFrameTimes[i];
+            mFrameTimes[i] = 0;
+        }
+
+        mLastFrameNodes = mFrameNodes;
+        mLastFramePaths = mFramePaths;
+        mLastFrameBitmaps = mFrameBitmaps;
+        mTotalPaths += mFramePaths;
+        mTotalBitmaps += mFrameBitmaps;
+        mFrameNodes = 0;
+        mFramePaths = 0;
+        mFrameBitmaps = 0;
+    }
+
+    void reset() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mFrameTimes[i] = 0;
+            mLastFrameTimes[i] = 0;
+            mTotalTimes[i] = 0;
+        }
+        mFrameStart = NOT_TIMED;
+        mLastFrameTime = 0;
+        mTotalFrameTime = 0;
+        mFrameCount = 0;
+        mFrameNodes = 0;
+        mFramePaths = 0;
+        mFrameBitmaps = 0;
+        mLastFrameNodes = 0;
+        mLastFramePaths = 0;
+        mLastFrameBitmaps = 0;
+        mTotalPaths = 0;
+        mTotalBitmaps = 0;
+    }
+
+    /**
+     * Returns the timings in milliseconds of the last frame and the totals since the last reset.
+     */
+    WritableMap toMap() {
+        WritableMap lastFrame = Arguments.createMap();
+        WritableMap total = Arguments.createMap();
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            lastFrame.putDouble(PHASE_NAMES[i], toMillis(mLastFrameTimes[i]));
+            total.putDouble(PHASE_NAMES[i], toMillis(mTotalTimes[i]));
+        }
+        lastFrame.putDouble("frame", toMillis(mLastFrameTime));
+        lastFrame.putInt("nodes", mLastFrameNodes);
+        lastFrame.putInt("paths", mLastFramePaths);
+        lastFrame.putInt("bitmaps", mLastFrameBitmaps);
+        total.putDouble("frame", toMillis(mTotalFrameTime));
+        total.putDouble("paths", mTotalPaths);
+        total.putDouble("bitmaps", mTotalBitmaps);
+
+        WritableMap map = Arguments.createMap();
+        map.putBoolean("enabled", sEnabled);
+        map.putInt("frames", mFrameCount);
+        map.putMap("lastFrame", lastFrame);
+        map.putMap("total", total);
+        return map;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -19,7 +19,6 @@ import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.Region;
 
 import com.facebook.react.bridge.Dynamic;
 import com.facebook.react.bridge.JSApplicationIllegalArgumentException;
@@ -29,8 +28,9 @@ import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableType;
 import com.facebook.react.uimanager.annotations.ReactProp;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,7 +57,7 @@ abstract public class RenderableView extends VirtualView {
     static final int FILL_RULE_NONZERO = 1;
 
     /*
-    Used in mergeProperties, keep public
+    Inherited properties, copied from the parent in mergeProperties
     */
 
     public @Nullable ReadableArray stroke;
@@ -79,13 +79,72 @@ abstract public class RenderableView extends VirtualView {
     End merged properties
     */
 
-    @Nullable ArrayList<String> mLastMergedList;
-    @Nullable ArrayList<Object> mOriginProperties;
-    @Nullable ArrayList<String> mPropList;
-    @Nullable ArrayList<String> mAttributeList;
+    // Bit indices of the merged properties, in the order of propList names
+    private static final int FILL = 0;
+    private static final int FILL_OPACITY = 1;
+    private static final int FILL_RULE = 2;
+    private static final int STROKE = 3;
+    private static final int STROKE_OPACITY = 4;
+    private static final int STROKE_WIDTH = 5;
+    private static final int STROKE_DASHARRAY = 6;
+    private static final int STROKE_DASHOFFSET = 7;
+    private static final int STROKE_LINECAP = 8;
+    private static final int STROKE_LINEJOIN = 9;
+    private static final int STROKE_MITERLIMIT = 10;
+    private static final int PROP_COUNT = 11;
+
+    private static final Map<String, Integer> sPropIndices = new HashMap<>();
+    static {
+        sPropIndices.put("fill", FILL);
+        sPropIndices.put("fillOpacity", FILL_OPACITY);
+        sPropIndices.put("fillRule", FILL_RULE);
+        sPropIndices.put("stroke", STROKE);
+        sPropIndices.put("strokeOpacity", STROKE_OPACITY);
+        sPropIndices.put("strokeWidth", STROKE_WIDTH);
+        sPropIndices.put("strokeDasharray", STROKE_DASHARRAY);
+        sPropIndices.put("strokeDashoffset", STROKE_DASHOFFSET);
+        sPropIndices.put("strokeLinecap", STROKE_LINECAP);
+        sPropIndices.put("strokeLinejoin", STROKE_LINEJOIN);
+        sPropIndices.put("strokeMiterlimit", STROKE_MITERLIMIT);
+    }
+
+    // Properties set on this view
+    int mPropMask;
+    // Properties set on or inherited by this view
+    int mAttributeMask;
+    // Properties inherited by the last mergeProperties call, restored by resetProperties
+    private int mMergedMask;
+    private @Nullable Object[] mOriginObjects;
+    private @Nullable float[] mOriginFloats;
 
     private static final Pattern regex = Pattern.compile("[0-9.-]+");
 
+    static final double M_SQRT2 = Math.sqrt(2);
+
+    // Results of the analytic hit tests of primitive shapes
+    static final int HIT_UNKNOWN = -1;
+    static final int HIT_OUTSIDE = 0;
+    static final int HIT_INSIDE = 1;
+
+    // Stroke of the last computed paths, resolved with the inherited properties
+    float mHitStrokeHalfWidth;
+    Paint.Cap mHitStrokeCap;
+    Paint.Join mHitStrokeJoin;
+    float mHitStrokeMiter;
+    private boolean mHitStrokeDashed;
+    // Stroke settings the outline is computed with, once a hit test needs it
+    private @Nullable Paint mHitStrokePaint;
+
+    private static boolean sApproximateStrokeHitTest = false;
+
+    /**
+     * Hit tests strokes without an analytic test against the stroked bounds of the path,
+     * instead of computing and rasterizing the stroke outline.
+     */
+    static void setApproximateStrokeHitTest(boolean approximate) {
+        sApproximateStrokeHitTest = approximate;
+    }
+
     @ReactProp(name = "fill")
     public void setFill(@Nullable Dynamic fill) {
         if (fill == null || fill.isNull()) {
@@ -234,79 +293,75 @@ abstract public class RenderableView extends VirtualView {
     @ReactProp(name = "propList")
     public void setPropList(@Nullable ReadableArray propList) {
         if (propList != null) {
-            mPropList = mAttributeList = new ArrayList<>();
+            int mask = 0;
             for (int i = 0; i < propList.size(); i++) {
-                mPropList.add(propList.getString(i));
+                Integer index = sPropIndices.get(propList.getString(i));
+                if (index != null) {
+                    mask |= 1 << index;
+                }
             }
+            mPropMask = mAttributeMask = mask;
         }
 
         invalidate();
     }
 
-    private static double saturate(double v) {
-        return v <= 0 ? 0 : (v >= 1 ? 1 : v);
-    }
-
     void render(Canvas canvas, Paint paint, float opacity) {
         MaskView mask = null;
+        SvgView root = getSvgView();
+        RenderStats stats = root.getRenderStats();
+        stats.countNode();
         if (mMask != null) {
-            SvgView root = getSvgView();
             mask = (MaskView) root.getDefinedMask(mMask);
         }
         if (mask != null) {
-            Rect clipBounds = canvas.getClipBounds();
+            Rect clipBounds = root.getDrawBounds(canvas);
             int height = clipBounds.height();
             int width = clipBounds.width();
 
-            Bitmap maskBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            Bitmap original = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            Bitmap result = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-
-            Canvas originalCanvas = new Canvas(original);
-            Canvas maskCanvas = new Canvas(maskBitmap);
-            Canvas resultCanvas = new Canvas(result);
-
-            // Clip to mask bounds and render the mask
+            // Only the mask area can be visible, render it and the element there
             float maskX = (float) relativeOnWidth(mask.mX);
-            float maskY = (float) relativeOnWidth(mask.mY);
+            float maskY = (float) relativeOnHeight(mask.mY);
             float maskWidth = (float) relativeOnWidth(mask.mW);
-            float maskHeight = (float) relativeOnWidth(mask.mH);
-            maskCanvas.clipRect(maskX, maskY, maskWidth, maskHeight);
-
-            Paint maskPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            mask.draw(maskCanvas, maskPaint, 1);
-
-            // Apply luminanceToAlpha filter primitive https://www.w3.org/TR/SVG11/filters.html#feColorMatrixElement
-            int nPixels = width * height;
-            int[] pixels = new int[nPixels];
-            maskBitmap.getPixels(pixels, 0, width, 0, 0, width, height);
-
-            for (int i = 0; i < nPixels; i++) {
-                int color = pixels[i];
-
-                int r = (color >> 16) & 0xFF;
-                int g = (color >> 8) & 0xFF;
-                int b = color & 0xFF;
-                int a = color >>> 24;
-
-                double luminance = saturate(((0.299 * r) + (0.587 * g) + (0.144 * b)) / 255);
-                int alpha = (int) (a * luminance);
-                int pixel = (alpha << 24);
-                pixels[i] = pixel;
+            float maskHeight = (float) relativeOnHeight(mask.mH);
+            Rect maskBounds = new Rect();
+            new RectF(maskX, maskY, maskX + maskWidth, maskY + maskHeight).roundOut(maskBounds);
+            if (!maskBounds.intersect(0, 0, width, height)) {
+                if (root.isOutputCanvas(canvas)) {
+                    this.setRenderBounds(null);
+                }
+                return;
             }
 
-            maskBitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+            long maskStart = stats.begin(RenderStats.PHASE_MASK);
+            Bitmap maskBitmap = mask.getMaskBitmap(maskBounds);
+            stats.end(RenderStats.PHASE_MASK, maskStart);
+            Bitmap original = root.acquireBitmap(maskBounds.width(), maskBounds.height(), Bitmap.Config.ARGB_8888);
 
             // Render content of current SVG Renderable to image
+            Canvas originalCanvas = new Canvas(original);
+            originalCanvas.translate(-maskBounds.left, -maskBounds.top);
             draw(originalCanvas, paint, opacity);
 
             // Blend current element and mask
+            maskStart = stats.begin(RenderStats.PHASE_MASK);
+            Paint maskPaint = new Paint();
             maskPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
-            resultCanvas.drawBitmap(original, 0, 0, null);
-            resultCanvas.drawBitmap(maskBitmap, 0, 0, maskPaint);
+            originalCanvas.drawBitmap(maskBitmap, maskBounds.left, maskBounds.top, maskPaint);
 
             // Render composited result into current render context
-            canvas.drawBitmap(result, 0, 0, paint);
+            canvas.drawBitmap(original, maskBounds.left, maskBounds.top, paint);
+            root.setBitmapDrawn(true);
+            stats.end(RenderStats.PHASE_MASK, maskStart);
+
+            root.releaseBitmap(original);
+
+            if (root.isOutputCanvas(canvas)) {
+                RectF renderBounds = new RectF(maskBounds);
+                root.getOutputMatrix(canvas).mapRect(renderBounds);
+                renderBounds.inset(-1, -1);
+                this.setRenderBounds(renderBounds);
+            }
         } else {
             draw(canvas, paint, opacity);
         }
@@ -317,42 +372,104 @@ abstract public class RenderableView extends VirtualView {
         opacity *= mOpacity;
 
         if (opacity > MIN_OPACITY_FOR_DRAW) {
+            RenderStats stats = getSvgView().getRenderStats();
             boolean computePaths = mPath == null;
             if (computePaths) {
+                long pathStart = stats.begin(RenderStats.PHASE_PATH);
                 mPath = getPath(canvas, paint);
-                mPath.setFillType(fillRule);
+                if (mPath.getFillType() != fillRule) {
+                    // Paths may be shared through the PathCache, copy before changing them
+                    mPath = new Path(mPath);
+                    mPath.setFillType(fillRule);
+                }
+                stats.end(RenderStats.PHASE_PATH, pathStart);
+                stats.countPath();
             }
             Path path = mPath;
 
             RectF clientRect = new RectF();
             path.computeBounds(clientRect, true);
             mBox = new RectF(clientRect);
+            mCullBounds = mBox;
 
-            // We create the canvas ourselves, thus we can depend on getMatrix
-            @SuppressWarnings("deprecation")
-            Matrix svgToViewMatrix = new Matrix(canvas.getMatrix());
+            Matrix svgToViewMatrix = getSvgView().getOutputMatrix(canvas);
             svgToViewMatrix.mapRect(clientRect);
             this.setClientRect(clientRect);
 
+            if (getSvgView().isOutputCanvas(canvas)) {
+                RectF renderBounds = new RectF(mBox);
+                float strokeOutset = getStrokeOutset();
+                renderBounds.inset(-strokeOutset, -strokeOutset);
+                svgToViewMatrix.mapRect(renderBounds);
+                renderBounds.inset(-1, -1);
+                this.setRenderBounds(renderBounds);
+            }
+
             clip(canvas, paint);
 
-            if (setupFillPaint(paint, opacity * fillOpacity)) {
-                if (computePaths) {
-                    mFillPath = new Path();
-                    paint.getFillPath(path, mFillPath);
-                }
+            long paintStart = stats.begin(RenderStats.PHASE_PAINT);
+            boolean hasFill = setupFillPaint(paint, opacity * fillOpacity);
+            stats.end(RenderStats.PHASE_PAINT, paintStart);
+            if (computePaths) {
+                // The outlines are only computed when a hit test needs them
+                mFillPath = hasFill ? path : null;
+                mStrokePath = null;
+                mHitStrokePaint = null;
+            }
+            if (hasFill) {
                 canvas.drawPath(path, paint);
             }
-            if (setupStrokePaint(paint, opacity * strokeOpacity)) {
+            paintStart = stats.begin(RenderStats.PHASE_PAINT);
+            boolean hasStroke = setupStrokePaint(paint, opacity * strokeOpacity);
+            stats.end(RenderStats.PHASE_PAINT, paintStart);
+            if (hasStroke) {
                 if (computePaths) {
-                    mStrokePath = new Path();
-                    paint.getFillPath(path, mStrokePath);
+                    mHitStrokePaint = new Paint();
+                    mHitStrokePaint.setStyle(Paint.Style.STROKE);
+                    mHitStrokePaint.setStrokeWidth(paint.getStrokeWidth());
+                    mHitStrokePaint.setStrokeCap(paint.getStrokeCap());
+                    mHitStrokePaint.setStrokeJoin(paint.getStrokeJoin());
+                    mHitStrokePaint.setStrokeMiter(paint.getStrokeMiter());
+                    mHitStrokePaint.setPathEffect(paint.getPathEffect());
+                    mHitStrokeHalfWidth = paint.getStrokeWidth() / 2;
+                    mHitStrokeCap = paint.getStrokeCap();
+                    mHitStrokeJoin = paint.getStrokeJoin();
+                    mHitStrokeMiter = paint.getStrokeMiter();
+                    mHitStrokeDashed = paint.getPathEffect() != null;
                 }
                 canvas.drawPath(path, paint);
             }
         }
     }
 
+    /**
+     * Returns the bounds of the last drawn path, outset by the current stroke.
+     */
+    @Override
+    @Nullable RectF getCullBounds() {
+        if (mCullBounds == null) {
+            return null;
+        }
+        // The stroke may be inherited, and change without the path
+        RectF bounds = new RectF(mCullBounds);
+        float outset = getStrokeOutset();
+        bounds.inset(-outset, -outset);
+        return bounds;
+    }
+
+    /**
+     * Returns the distance the stroke can extend past the path bounds,
+     * accounting for square caps and miter joins.
+     */
+    private float getStrokeOutset() {
+        if (stroke == null || stroke.size() == 0) {
+            return 0;
+        }
+        double halfWidth = relativeOnOther(strokeWidth) / 2;
+        double factor = strokeLinejoin == Paint.Join.MITER ? Math.max(strokeMiterlimit, M_SQRT2) : M_SQRT2;
+        return (float) Math.abs(halfWidth * factor);
+    }
+
     /**
      * Sets up paint according to the props set on a view. Returns {@code true}
      * if the fill should be drawn, {@code false} if not.
@@ -437,7 +554,7 @@ abstract public class RenderableView extends VirtualView {
 
     @Override
     int hitTest(final float[] src) {
-        if (mPath == null || !mInvertible || !mTransformInvertible) {
+        if (mPath == null || !mInvertible || !mTransformInvertible || !getSvgView().mayHit(this)) {
             return -1;
         }
 
@@ -447,105 +564,285 @@ abstract public class RenderableView extends VirtualView {
         int x = Math.round(dst[0]);
         int y = Math.round(dst[1]);
 
-        if (mRegion == null && mFillPath != null) {
-            mRegion = getRegion(mFillPath);
-        }
-        if (mRegion == null && mPath != null) {
-            mRegion = getRegion(mPath);
-        }
-        if (mStrokeRegion == null && mStrokePath != null) {
-            mStrokeRegion = getRegion(mStrokePath);
-        }
-        if (
-            (mRegion == null || !mRegion.contains(x, y)) &&
-            (mStrokeRegion == null || !mStrokeRegion.contains(x, y))
-        ) {
+        if (!fillContains(dst[0], dst[1], x, y) && !strokeContains(dst[0], dst[1], x, y)) {
             return -1;
         }
 
         Path clipPath = getClipPath();
-        if (clipPath != null) {
-            if (mClipRegionPath != clipPath) {
-                mClipRegionPath = clipPath;
-                mClipRegion = getRegion(clipPath);
-            }
-            if (!mClipRegion.contains(x, y)) {
-                return -1;
-            }
+        if (clipPath != null && !HitRegionCache.contains(clipPath, x, y)) {
+            return -1;
         }
 
         return getId();
     }
 
-    Region getRegion(Path path) {
-        RectF rectF = new RectF();
-        path.computeBounds(rectF, true);
+    private boolean fillContains(float px, float py, int x, int y) {
+        int hit = hitTestFill(px, py);
+        if (hit != HIT_UNKNOWN) {
+            return hit == HIT_INSIDE;
+        }
+        Path fillPath = mFillPath != null ? mFillPath : mPath;
+        return fillPath != null && HitRegionCache.contains(fillPath, x, y);
+    }
 
-        Region region = new Region();
-        region.setPath(path,
-                new Region(
-                        (int) Math.floor(rectF.left),
-                        (int) Math.floor(rectF.top),
-                        (int) Math.ceil(rectF.right),
-                        (int) Math.ceil(rectF.bottom)
-                )
-        );
+    boolean strokeContains(float px, float py, int x, int y) {
+        if (mHitStrokePaint == null) {
+            return false;
+        }
+        int hit = mHitStrokeDashed ? HIT_UNKNOWN : hitTestStroke(px, py);
+        if (hit != HIT_UNKNOWN) {
+            return hit == HIT_INSIDE;
+        }
+        if (sApproximateStrokeHitTest && mBox != null) {
+            RectF bounds = new RectF(mBox);
+            float outset = getStrokeOutset();
+            bounds.inset(-outset, -outset);
+            return bounds.contains(px, py);
+        }
+        Path strokePath = getStrokePath();
+        return strokePath != null && HitRegionCache.contains(strokePath, x, y);
+    }
+
+    /**
+     * Returns the outline of the stroke of the last drawn path, computing it on first use.
+     */
+    @Nullable Path getStrokePath() {
+        if (mStrokePath == null && mHitStrokePaint != null && mPath != null) {
+            mStrokePath = new Path();
+            mHitStrokePaint.getFillPath(mPath, mStrokePath);
+        }
+        return mStrokePath;
+    }
 
-        return region;
+    /**
+     * Tests the point against the interior of the shape analytically, in the user space of
+     * its path. Returns {@link #HIT_UNKNOWN} to fall back to rasterizing the path.
+     */
+    int hitTestFill(float x, float y) {
+        return HIT_UNKNOWN;
     }
 
-    private ArrayList<String> getAttributeList() {
-        return mAttributeList;
+    /**
+     * Tests the point against the (undashed) stroke of the shape analytically, using the
+     * {@code mHitStroke} properties. Returns {@link #HIT_UNKNOWN} to fall back to rasterizing.
+     */
+    int hitTestStroke(float x, float y) {
+        return HIT_UNKNOWN;
     }
 
     void mergeProperties(RenderableView target) {
-        ArrayList<String> targetAttributeList = target.getAttributeList();
+        int targetMask = target.mAttributeMask;
 
-        if (targetAttributeList == null ||
-                targetAttributeList.size() == 0) {
+        if (targetMask == 0) {
             return;
         }
 
-        mOriginProperties = new ArrayList<>();
-        mAttributeList = mPropList == null ? new ArrayList<String>() : new ArrayList<>(mPropList);
+        if (mOriginObjects == null || mOriginFloats == null) {
+            mOriginObjects = new Object[PROP_COUNT];
+            mOriginFloats = new float[PROP_COUNT];
+        }
 
-        for (int i = 0, size = targetAttributeList.size(); i < size; i++) {
-            try {
-                String fieldName = targetAttributeList.get(i);
-                Field field = getClass().getField(fieldName);
-                Object value = field.get(target);
-                mOriginProperties.add(field.get(this));
+        int merged = targetMask & ~mPropMask;
+        for (int i = 0; i < PROP_COUNT; i++) {
+            if ((merged & (1 << i)) != 0) {
+                inheritProperty(i, target);
+            }
+        }
 
-                if (!hasOwnProperty(fieldName)) {
-                    mAttributeList.add(fieldName);
-                    field.set(this, value);
-                }
-            } catch (Exception e) {
-                throw new IllegalStateException(e);
+        mMergedMask = merged;
+        mAttributeMask = mPropMask | merged;
+    }
+
+    /**
+     * Adds the values mergeProperties would inherit from the target to the key, two targets
+     * adding equal keys resolve this element identically.
+     */
+    void addMergedPropertiesTo(RenderableView target, List<Object> key) {
+        int merged = target.mAttributeMask & ~mPropMask;
+        key.add(merged);
+        for (int i = 0; i < PROP_COUNT; i++) {
+            if ((merged & (1 << i)) == 0) {
+                continue;
+            }
+            switch (i) {
+                case FILL:
+                    addArrayTo(target.fill, key);
+                    break;
+                case FILL_OPACITY:
+                    key.add(target.fillOpacity);
+                    break;
+                case FILL_RULE:
+                    key.add(target.fillRule);
+                    break;
+                case STROKE:
+                    addArrayTo(target.stroke, key);
+                    break;
+                case STROKE_OPACITY:
+                    key.add(target.strokeOpacity);
+                    break;
+                case STROKE_WIDTH:
+                    addLengthTo(target.strokeWidth, key);
+                    break;
+                case STROKE_DASHARRAY:
+                    if (target.strokeDasharray == null) {
+                        key.add(null);
+                    } else {
+                        key.add(target.strokeDasharray.length);
+                        for (SVGLength length : target.strokeDasharray) {
+                            addLengthTo(length, key);
+                        }
+                    }
+                    break;
+                case STROKE_DASHOFFSET:
+                    key.add(target.strokeDashoffset);
+                    break;
+                case STROKE_LINECAP:
+                    key.add(target.strokeLinecap);
+                    break;
+                case STROKE_LINEJOIN:
+                    key.add(target.strokeLinejoin);
+                    break;
+                case STROKE_MITERLIMIT:
+                    key.add(target.strokeMiterlimit);
+                    break;
             }
         }
+    }
 
-        mLastMergedList = targetAttributeList;
+    private static void addLengthTo(@Nullable SVGLength length, List<Object> key) {
+        if (length == null) {
+            key.add(null);
+        } else {
+            key.add(length.value);
+            key.add(length.unit);
+        }
+    }
+
+    private static void addArrayTo(@Nullable ReadableArray array, List<Object> key) {
+        if (array == null) {
+            key.add(null);
+            return;
+        }
+        key.add(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            switch (array.getType(i)) {
+                case Number:
+                    key.add(array.getDouble(i));
+                    break;
+                case String:
+                    key.add(array.getString(i));
+                    break;
+                default:
+                    key.add(array.getType(i));
+                    break;
+            }
+        }
     }
 
     void resetProperties() {
-        if (mLastMergedList != null && mOriginProperties != null) {
-            try {
-                for (int i = mLastMergedList.size() - 1; i >= 0; i--) {
-                    Field field = getClass().getField(mLastMergedList.get(i));
-                    field.set(this, mOriginProperties.get(i));
+        int merged = mMergedMask;
+        if (merged != 0) {
+            for (int i = PROP_COUNT - 1; i >= 0; i--) {
+                if ((merged & (1 << i)) != 0) {
+                    restoreProperty(i);
                 }
-            } catch (Exception e) {
-                throw new IllegalStateException(e);
             }
+            mMergedMask = 0;
+        }
+        mAttributeMask = mPropMask;
+    }
 
-            mLastMergedList = null;
-            mOriginProperties = null;
-            mAttributeList = mPropList;
+    @SuppressWarnings("ConstantConditions")
+    private void inheritProperty(int index, RenderableView target) {
+        Object[] objects = mOriginObjects;
+        float[] floats = mOriginFloats;
+        switch (index) {
+            case FILL:
+                objects[index] = fill;
+                fill = target.fill;
+                break;
+            case FILL_OPACITY:
+                floats[index] = fillOpacity;
+                fillOpacity = target.fillOpacity;
+                break;
+            case FILL_RULE:
+                objects[index] = fillRule;
+                fillRule = target.fillRule;
+                break;
+            case STROKE:
+                objects[index] = stroke;
+                stroke = target.stroke;
+                break;
+            case STROKE_OPACITY:
+                floats[index] = strokeOpacity;
+                strokeOpacity = target.strokeOpacity;
+                break;
+            case STROKE_WIDTH:
+                objects[index] = strokeWidth;
+                strokeWidth = target.strokeWidth;
+                break;
+            case STROKE_DASHARRAY:
+                objects[index] = strokeDasharray;
+                strokeDasharray = target.strokeDasharray;
+                break;
+            case STROKE_DASHOFFSET:
+                floats[index] = strokeDashoffset;
+                strokeDashoffset = target.strokeDashoffset;
+                break;
+            case STROKE_LINECAP:
+                objects[index] = strokeLinecap;
+                strokeLinecap = target.strokeLinecap;
+                break;
+            case STROKE_LINEJOIN:
+                objects[index] = strokeLinejoin;
+                strokeLinejoin = target.strokeLinejoin;
+                break;
+            case STROKE_MITERLIMIT:
+                floats[index] = strokeMiterlimit;
+                strokeMiterlimit = target.strokeMiterlimit;
+                break;
         }
     }
 
-    private boolean hasOwnProperty(String propName) {
-        return mAttributeList != null && mAttributeList.contains(propName);
+    @SuppressWarnings("ConstantConditions")
+    private void restoreProperty(int index) {
+        Object[] objects = mOriginObjects;
+        float[] floats = mOriginFloats;
+        switch (index) {
+            case FILL:
+                fill = (ReadableArray) objects[index];
+                break;
+            case FILL_OPACITY:
+                fillOpacity = floats[index];
+                break;
+            case FILL_RULE:
+                fillRule = (Path.FillType) objects[index];
+                break;
+            case STROKE:
+                stroke = (ReadableArray) objects[index];
+                break;
+            case STROKE_OPACITY:
+                strokeOpacity = floats[index];
+                break;
+            case STROKE_WIDTH:
+                strokeWidth = (SVGLength) objects[index];
+                break;
+            case STROKE_DASHARRAY:
+                strokeDasharray = (SVGLength[]) objects[index];
+                break;
+            case STROKE_DASHOFFSET:
+                strokeDashoffset = floats[index];
+                break;
+            case STROKE_LINECAP:
+                strokeLinecap = (Paint.Cap) objects[index];
+                break;
+            case STROKE_LINEJOIN:
+                strokeLinejoin = (Paint.Join) objects[index];
+                break;
+            case STROKE_MITERLIMIT:
+                strokeMiterlimit = floats[index];
+                break;
+        }
+        objects[index] = null;
     }
 }
@@ -1018,6 +1018,11 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
         node.setResponsible(responsible);
     }
 
+    @ReactProp(name = "hasOnLayout")
+    public void setHasOnLayout(VirtualView node, boolean hasOnLayout) {
+        node.setHasOnLayout(hasOnLayout);
+    }
+
     @ReactProp(name = "name")
     public void setName(VirtualView node, String name) {
         node.setName(name);
@@ -1026,7 +1031,7 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
     private void invalidateSvgView(VirtualView node) {
         SvgView view = node.getSvgView();
         if (view!= null) {
-            view.invalidate();
+            view.invalidateNode(node);
         }
     }
 
@@ -12,26 +12,51 @@ package com.horcrux.svg;
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.os.Build;
 import android.util.Base64;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.ViewParent;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Dynamic;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.uimanager.DisplayMetricsHolder;
 import com.facebook.react.uimanager.ReactCompoundView;
 import com.facebook.react.uimanager.ReactCompoundViewGroup;
+import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.annotations.ReactProp;
+import com.facebook.react.uimanager.events.EventDispatcher;
 import com.facebook.react.views.view.ReactViewGroup;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.annotation.Nullable;
 
@@ -61,7 +86,81 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         }
     }
 
+    private static final String RENDER_MODE_PICTURE = "picture";
+    private static final String RENDER_MODE_BACKGROUND = "background";
+    private static final String RENDER_MODE_TILED = "tiled";
+    private static final String BACKGROUND_POLICY_BLOCK = "block";
+
+    private static final ExecutorService sRenderExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RNSVGRender");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     private @Nullable Bitmap mBitmap;
+    private @Nullable Picture mPicture;
+    private boolean mPictureMode = false;
+    private boolean mRecording = false;
+    private final ArrayList<Bitmap> mPictureBitmaps = new ArrayList<>();
+
+    private boolean mBackgroundMode = false;
+    private boolean mBlockUntilReady = false;
+    private boolean mFrameDirty = true;
+    private @Nullable BackgroundFrame mPendingFrame;
+    private long mFramesRendered = 0;
+    private long mFramesStale = 0;
+    private long mFramesBlocked = 0;
+
+    private boolean mTiledMode = false;
+    private final TileCache mTiles = new TileCache();
+    // The tile being rendered, in view coordinates
+    private @Nullable Rect mTile;
+    private final ViewTreeObserver.OnScrollChangedListener mScrollListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            if (mTiledMode) {
+                // Tiles scrolled into view are only rendered when drawing again
+                SvgView.super.invalidate();
+            }
+        }
+    };
+
+    /**
+     * A recorded frame, rasterized into its own bitmap on the render thread. The bitmaps drawn
+     * by the recording are held until the frame is done with them.
+     */
+    private final class BackgroundFrame implements Runnable {
+        final Picture picture;
+        final Bitmap bitmap;
+        final ArrayList<Bitmap> pictureBitmaps;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean cancelled = false;
+        // Only accessed on the ui thread
+        boolean finished = false;
+
+        BackgroundFrame(Picture picture, Bitmap bitmap, ArrayList<Bitmap> pictureBitmaps) {
+            this.picture = picture;
+            this.bitmap = bitmap;
+            this.pictureBitmaps = pictureBitmaps;
+        }
+
+        @Override
+        public void run() {
+            if (!cancelled) {
+                new Canvas(bitmap).drawPicture(picture);
+            }
+            done.countDown();
+            UiThreadUtil.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    finishBackgroundFrame(BackgroundFrame.this, true);
+                }
+            });
+        }
+    }
 
     public SvgView(ReactContext reactContext) {
         super(reactContext);
@@ -86,10 +185,80 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             ((VirtualView) parent).getSvgView().invalidate();
             return;
         }
-        if (mBitmap != null) {
-            mBitmap.recycle();
+        if (mBackgroundMode) {
+            // The front buffer is displayed until the next frame is ready
+            mFrameDirty = true;
+            releasePicture();
+            mDamaged = false;
+            mDirtyRect.setEmpty();
+            return;
         }
+        BitmapPool.release(mBitmap);
         mBitmap = null;
+        mTiles.clear();
+        releasePicture();
+        mDamaged = false;
+        mDirtyRect.setEmpty();
+    }
+
+    private void releasePicture() {
+        mPicture = null;
+        for (Bitmap bitmap : mPictureBitmaps) {
+            BitmapPool.release(bitmap);
+        }
+        mPictureBitmaps.clear();
+    }
+
+    /**
+     * Invalidates the area covered by a single node instead of the whole output.
+     *
+     * The bounds of the last rendering of the node are added to the damage, and the retained
+     * bitmap is repainted only inside of it on the next draw, or only the tiles intersecting
+     * it are dropped in tiled mode. Changes to definitions (templates, clip paths, masks,
+     * brushes) can affect any node referencing them, and fall back to a full {@link #invalidate}.
+     */
+    void invalidateNode(VirtualView node) {
+        // The last rendering of the node, and of the groups containing it, no longer applies
+        ViewParent parent = node;
+        while (parent instanceof VirtualView) {
+            ((VirtualView) parent).mCullBounds = null;
+            ((VirtualView) parent).mTemplateCache = null;
+            parent = parent.getParent();
+        }
+        if (node.isDefinition()) {
+            // Masks, patterns and clip paths may use any definition
+            releaseDefinitionCaches();
+        }
+        if (mTiledMode && !(getParent() instanceof VirtualView) && !node.isDefinition()) {
+            RectF bounds = node.getRenderBounds();
+            if (bounds == null) {
+                invalidate();
+                return;
+            }
+            mTiles.invalidate(bounds, null);
+            super.invalidate();
+            return;
+        }
+        if (getParent() instanceof VirtualView || mBitmap == null || node.isDefinition() || mPictureMode || mBackgroundMode) {
+            invalidate();
+            return;
+        }
+        RectF bounds = node.getRenderBounds();
+        if (bounds != null) {
+            mDirtyRect.union(bounds);
+        }
+        mDamaged = true;
+        super.invalidate();
+    }
+
+    /**
+     * Called while drawing when the render bounds of a node change, both the old and the new
+     * bounds need to be repainted.
+     */
+    void addDamage(@Nullable RectF bounds) {
+        if (mTrackDamage && bounds != null) {
+            mPendingDamage.union(bounds);
+        }
     }
 
     @Override
@@ -98,11 +267,424 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             return;
         }
         super.onDraw(canvas);
-        if (mBitmap == null) {
-            mBitmap = drawOutput();
+        mRenderStats.beginFrame();
+        if (mBackgroundMode) {
+            drawBackgroundFrame(canvas);
+        } else if (mTiledMode) {
+            drawTiles(canvas);
+        } else if (mPictureMode && canDrawPicture(canvas)) {
+            if (mPicture == null) {
+                mPicture = recordOutput();
+            }
+            if (mPicture != null) {
+                canvas.drawPicture(mPicture);
+            }
+        } else {
+            if (mBitmap == null) {
+                mBitmap = drawOutput();
+            } else if (mDamaged) {
+                drawDirtyRegion();
+            }
+            if (mBitmap != null)
+                canvas.drawBitmap(mBitmap, 0, 0, null);
+        }
+        mRenderStats.endFrame();
+    }
+
+    /**
+     * Draws the front buffer, starting to rasterize the next frame in the background when the
+     * tree changed. Depending on the policy, a pending frame either leaves the previous frame on
+     * screen or is waited for.
+     */
+    private void drawBackgroundFrame(Canvas canvas) {
+        if (mBlockUntilReady && mPendingFrame != null && mPendingFrame.cancelled) {
+            awaitBackgroundFrame(mPendingFrame);
         }
-        if (mBitmap != null)
+        if (mFrameDirty && mPendingFrame == null) {
+            mFrameDirty = false;
+            startBackgroundFrame();
+        }
+        if (mBlockUntilReady && mPendingFrame != null && awaitBackgroundFrame(mPendingFrame)) {
+            mFramesBlocked++;
+        }
+        if (mBitmap != null) {
+            if (mPendingFrame != null || mFrameDirty) {
+                mFramesStale++;
+            }
             canvas.drawBitmap(mBitmap, 0, 0, null);
+        }
+    }
+
+    /**
+     * Draws the visible tiles, rendering the ones missing from the cache.
+     *
+     * Nodes moving while tiles are rendered add their old and new bounds to the pending damage,
+     * cached tiles intersecting it which were not rendered in this frame are stale and rendered
+     * again until no more damage is found.
+     */
+    private void drawTiles(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        Rect visible = new Rect();
+        if (width < 1 || height < 1 || !getLocalVisibleRect(visible) || !visible.intersect(canvas.getClipBounds())) {
+            return;
+        }
+        int size = TileCache.TILE_SIZE;
+        int firstColumn = visible.left / size;
+        int firstRow = visible.top / size;
+        int lastColumn = (visible.right - 1) / size;
+        int lastRow = (visible.bottom - 1) / size;
+
+        Set<Long> rendered = new HashSet<>();
+        boolean damaged;
+        mTrackDamage = true;
+        do {
+            mPendingDamage.setEmpty();
+            List<Rect> missing = new ArrayList<>();
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    if (mTiles.get(column, row) == null) {
+                        missing.add(new Rect(
+                                column * size,
+                                row * size,
+                                Math.min(width, (column + 1) * size),
+                                Math.min(height, (row + 1) * size)));
+                    }
+                }
+            }
+            renderTiles(missing, rendered);
+            damaged = !mPendingDamage.isEmpty();
+            if (damaged) {
+                mTiles.invalidate(mPendingDamage, rendered);
+            }
+        } while (damaged);
+        mTrackDamage = false;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Bitmap tile = mTiles.peek(column, row);
+                if (tile != null) {
+                    canvas.drawBitmap(tile, column * size, row * size, null);
+                }
+            }
+        }
+        mTiles.trim((lastColumn - firstColumn + 1) * (lastRow - firstRow + 1));
+    }
+
+    /**
+     * Renders the tiles into the cache. Several tiles are recorded into a single picture at once,
+     * which is then rasterized into the tiles concurrently.
+     */
+    private void renderTiles(List<Rect> tiles, Set<Long> rendered) {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        List<Bitmap> bitmaps = new ArrayList<>();
+        for (Rect tile : tiles) {
+            bitmaps.add(acquireBitmap(tile.width(), tile.height(), Bitmap.Config.ARGB_8888));
+        }
+        if (tiles.size() == 1 || !TileRasterizer.isParallel()) {
+            for (int i = 0; i < tiles.size(); i++) {
+                Rect tile = tiles.get(i);
+                Canvas canvas = new Canvas(bitmaps.get(i));
+                canvas.translate(-tile.left, -tile.top);
+                mTile = tile;
+                drawChildren(canvas);
+                mTile = null;
+            }
+        } else {
+            Rect area = new Rect(tiles.get(0));
+            for (Rect tile : tiles) {
+                area.union(tile);
+            }
+            ArrayList<Bitmap> pictureBitmaps = new ArrayList<>();
+            Picture picture = recordPicture(area.width(), area.height(), area, pictureBitmaps);
+            TileRasterizer.draw(picture, area.left, area.top, tiles, bitmaps);
+            for (Bitmap bitmap : pictureBitmaps) {
+                BitmapPool.release(bitmap);
+            }
+        }
+        int size = TileCache.TILE_SIZE;
+        for (int i = 0; i < tiles.size(); i++) {
+            Rect tile = tiles.get(i);
+            mTiles.put(tile.left / size, tile.top / size, bitmaps.get(i));
+            rendered.add(TileCache.getKey(tile.left / size, tile.top / size));
+        }
+    }
+
+    /**
+     * Records the tree into a picture, which serves as a read-only snapshot for rasterizing on
+     * other threads. With a tile, the picture covers that area of the view, like a tile drawn
+     * by {@link #drawChildren}. The bitmaps referenced by the recording are moved into
+     * pictureBitmaps, to be released once the picture is drawn.
+     */
+    private Picture recordPicture(int width, int height, @Nullable Rect tile, ArrayList<Bitmap> pictureBitmaps) {
+        int held = mPictureBitmaps.size();
+        Picture picture = new Picture();
+        Canvas canvas = picture.beginRecording(width, height);
+        if (tile != null) {
+            canvas.translate(-tile.left, -tile.top);
+        }
+        mTile = tile;
+        mRecording = true;
+        try {
+            drawChildren(canvas);
+        } finally {
+            mRecording = false;
+            mTile = null;
+            picture.endRecording();
+        }
+        if (mPicture == null) {
+            // The retained picture may still reference the bitmaps released while recording
+            List<Bitmap> recorded = mPictureBitmaps.subList(held, mPictureBitmaps.size());
+            pictureBitmaps.addAll(recorded);
+            recorded.clear();
+        }
+        return picture;
+    }
+
+    /**
+     * Rasterizes the picture into the bitmap in batches of tiles drawn concurrently.
+     */
+    private static void rasterize(Picture picture, Bitmap bitmap) {
+        Canvas canvas = new Canvas(bitmap);
+        List<Rect> tiles = TileRasterizer.split(bitmap.getWidth(), bitmap.getHeight());
+        int batchSize = TileRasterizer.getBatchSize();
+        for (int start = 0; start < tiles.size(); start += batchSize) {
+            List<Rect> batch = tiles.subList(start, Math.min(tiles.size(), start + batchSize));
+            List<Bitmap> bitmaps = new ArrayList<>();
+            for (Rect tile : batch) {
+                bitmaps.add(BitmapPool.acquire(tile.width(), tile.height(), Bitmap.Config.ARGB_8888));
+            }
+            TileRasterizer.draw(picture, 0, 0, batch, bitmaps);
+            for (int i = 0; i < batch.size(); i++) {
+                canvas.drawBitmap(bitmaps.get(i), batch.get(i).left, batch.get(i).top, null);
+                BitmapPool.release(bitmaps.get(i));
+            }
+        }
+    }
+
+    WritableMap getTileCacheStats() {
+        WritableMap stats = Arguments.createMap();
+        stats.putBoolean("enabled", mTiledMode);
+        stats.putInt("tiles", mTiles.getTileCount());
+        stats.putInt("bytes", mTiles.getByteSize());
+        stats.putDouble("hits", mTiles.getHitCount());
+        stats.putDouble("misses", mTiles.getMissCount());
+        return stats;
+    }
+
+    private void startBackgroundFrame() {
+        Picture picture = recordOutput();
+        if (picture == null) {
+            return;
+        }
+        Bitmap bitmap = acquireBitmap(picture.getWidth(), picture.getHeight(), Bitmap.Config.ARGB_8888);
+        BackgroundFrame frame = new BackgroundFrame(picture, bitmap, new ArrayList<>(mPictureBitmaps));
+        mPictureBitmaps.clear();
+        mPendingFrame = frame;
+        sRenderExecutor.execute(frame);
+    }
+
+    private boolean awaitBackgroundFrame(BackgroundFrame frame) {
+        try {
+            frame.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        finishBackgroundFrame(frame, false);
+        return true;
+    }
+
+    /**
+     * Swaps in a rasterized frame, unless it was cancelled, and releases the bitmaps it held.
+     */
+    private void finishBackgroundFrame(BackgroundFrame frame, boolean redraw) {
+        if (frame.finished) {
+            return;
+        }
+        frame.finished = true;
+        if (frame == mPendingFrame) {
+            mPendingFrame = null;
+        }
+        for (Bitmap bitmap : frame.pictureBitmaps) {
+            BitmapPool.release(bitmap);
+        }
+        if (frame.cancelled) {
+            BitmapPool.release(frame.bitmap);
+            if (redraw && mBackgroundMode && mFrameDirty) {
+                super.invalidate();
+            }
+            return;
+        }
+        BitmapPool.release(mBitmap);
+        mBitmap = frame.bitmap;
+        mFramesRendered++;
+        if (redraw) {
+            super.invalidate();
+        }
+    }
+
+    private void cancelBackgroundFrame() {
+        if (mPendingFrame != null) {
+            mPendingFrame.cancelled = true;
+        }
+        mFrameDirty = true;
+    }
+
+    WritableMap getBackgroundRenderStats() {
+        WritableMap stats = Arguments.createMap();
+        stats.putBoolean("enabled", mBackgroundMode);
+        stats.putBoolean("pending", mPendingFrame != null);
+        stats.putDouble("framesRendered", mFramesRendered);
+        stats.putDouble("framesStale", mFramesStale);
+        stats.putDouble("framesBlocked", mFramesBlocked);
+        return stats;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(mScrollListener);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getViewTreeObserver().removeOnScrollChangedListener(mScrollListener);
+        removeCallbacks(mLayoutFlush);
+        mLayoutChanges.clear();
+        cancelBackgroundFrame();
+        BitmapPool.release(mBitmap);
+        mBitmap = null;
+        mTiles.clear();
+        releasePicture();
+        releaseDefinitionCaches();
+        mHitIndex.clear();
+    }
+
+    /**
+     * Returns the statistics of the root svg, which renders nested svg elements.
+     */
+    RenderStats getRenderStats() {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().getRenderStats();
+        }
+        return mRenderStats;
+    }
+
+    /**
+     * Acquires a bitmap from the {@link BitmapPool}, accounting for it in the statistics.
+     */
+    Bitmap acquireBitmap(int width, int height, Bitmap.Config config) {
+        RenderStats stats = getRenderStats();
+        long start = stats.begin(RenderStats.PHASE_BITMAP);
+        Bitmap bitmap = BitmapPool.acquire(width, height, config);
+        stats.end(RenderStats.PHASE_BITMAP, start);
+        stats.countBitmap();
+        return bitmap;
+    }
+
+    private void releaseDefinitionCaches() {
+        for (VirtualView mask : mDefinedMasks.values()) {
+            ((MaskView) mask).releaseMaskBitmap();
+        }
+        for (Brush brush : mDefinedBrushes.values()) {
+            brush.release();
+        }
+        for (VirtualView clipPath : mDefinedClipPaths.values()) {
+            ((ClipPathView) clipPath).releaseClipPath();
+        }
+        for (VirtualView template : mDefinedTemplates.values()) {
+            template.mTemplateCache = null;
+        }
+    }
+
+    /**
+     * Hardware accelerated canvases can only replay pictures from Android M onwards,
+     * older versions keep rasterizing into a bitmap.
+     */
+    private static boolean canDrawPicture(Canvas canvas) {
+        return !canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+
+    /**
+     * Bitmaps drawn while recording are referenced by the picture, and must not be reused
+     * until it is discarded, nor while a frame is being rasterized in the background.
+     * While the view retains a picture, any bitmap released may be one it references, e.g.
+     * a mask or pattern tile redrawn at another size for a snapshot, and is held as well.
+     * Anything else goes straight back to the {@link BitmapPool}.
+     */
+    void releaseBitmap(Bitmap bitmap) {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            ((VirtualView) parent).getSvgView().releaseBitmap(bitmap);
+        } else if (mRecording || mPicture != null) {
+            mPictureBitmaps.add(bitmap);
+        } else if (mPendingFrame != null) {
+            mPendingFrame.pictureBitmaps.add(bitmap);
+        } else {
+            BitmapPool.release(bitmap);
+        }
+    }
+
+    /**
+     * Set when a bitmap is drawn, use elements don't record templates drawing bitmaps.
+     */
+    void setBitmapDrawn(boolean drawn) {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            ((VirtualView) parent).getSvgView().setBitmapDrawn(drawn);
+        } else {
+            mBitmapDrawn = drawn;
+        }
+    }
+
+    boolean isBitmapDrawn() {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().isBitmapDrawn();
+        }
+        return mBitmapDrawn;
+    }
+
+    /**
+     * Queues the layout event of a node. The events of a frame are dispatched together on the
+     * next animation frame, once for each node with its last client rect.
+     */
+    void queueLayoutEvent(VirtualView node) {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            ((VirtualView) parent).getSvgView().queueLayoutEvent(node);
+            return;
+        }
+        if (mLayoutChanges.isEmpty()) {
+            postOnAnimation(mLayoutFlush);
+        }
+        mLayoutChanges.add(node);
+    }
+
+    private void flushLayoutEvents() {
+        if (mLayoutChanges.isEmpty()) {
+            return;
+        }
+        EventDispatcher eventDispatcher = ((ReactContext) getContext())
+                .getNativeModule(UIManagerModule.class)
+                .getEventDispatcher();
+        for (VirtualView node : mLayoutChanges) {
+            node.dispatchLayoutEvent(eventDispatcher);
+        }
+        mLayoutChanges.clear();
+    }
+
+    boolean isRecording() {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().isRecording();
+        }
+        return mRecording;
     }
 
     @Override
@@ -138,6 +720,32 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
     private boolean mRendered = false;
     int mTintColor = 0;
 
+    private static final int MAX_DAMAGE_PASSES = 3;
+
+    private boolean mDamaged = false;
+    private boolean mTrackDamage = false;
+    private final RectF mDirtyRect = new RectF();
+    private final RectF mPendingDamage = new RectF();
+    private @Nullable Rect mDamage;
+
+    private final HitTestIndex mHitIndex = new HitTestIndex();
+    private final Set<VirtualView> mHitCandidates = new HashSet<>();
+    private boolean mHitTesting = false;
+
+    private final RenderStats mRenderStats = new RenderStats();
+    // Transform of the children into a snapshot, instead of the viewBox transform of the view
+    private @Nullable Matrix mSnapshotMatrix;
+    private boolean mBitmapDrawn = false;
+
+    // Nodes with an onLayout listener whose client rect changed since the last flush
+    private final Set<VirtualView> mLayoutChanges = new LinkedHashSet<>();
+    private final Runnable mLayoutFlush = new Runnable() {
+        @Override
+        public void run() {
+            flushLayoutEvents();
+        }
+    };
+
     private void clearChildCache() {
         if (!mRendered) {
             return;
@@ -203,6 +811,23 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         clearChildCache();
     }
 
+    @ReactProp(name = "renderMode")
+    public void setRenderMode(@Nullable String renderMode) {
+        mPictureMode = RENDER_MODE_PICTURE.equals(renderMode);
+        mTiledMode = RENDER_MODE_TILED.equals(renderMode);
+        boolean backgroundMode = RENDER_MODE_BACKGROUND.equals(renderMode);
+        if (mBackgroundMode && !backgroundMode) {
+            cancelBackgroundFrame();
+        }
+        mBackgroundMode = backgroundMode;
+        invalidate();
+    }
+
+    @ReactProp(name = "backgroundRenderPolicy")
+    public void setBackgroundRenderPolicy(@Nullable String policy) {
+        mBlockUntilReady = BACKGROUND_POLICY_BLOCK.equals(policy);
+    }
+
     @ReactProp(name = "align")
     public void setAlign(String align) {
         mAlign = align;
@@ -225,7 +850,7 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         if (invalid) {
             return null;
         }
-        Bitmap bitmap = Bitmap.createBitmap(
+        Bitmap bitmap = acquireBitmap(
                 (int) width,
                 (int) height,
                 Bitmap.Config.ARGB_8888);
@@ -234,17 +859,171 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         return bitmap;
     }
 
+    /**
+     * Records the tree into a picture which is replayed by the (hardware) canvas on every draw,
+     * instead of rasterizing it into a bitmap.
+     */
+    private Picture recordOutput() {
+        mRendered = true;
+        int width = getWidth();
+        int height = getHeight();
+        if (width < 1 || height < 1) {
+            return null;
+        }
+        Picture picture = new Picture();
+        mRecording = true;
+        drawChildren(picture.beginRecording(width, height));
+        picture.endRecording();
+        mRecording = false;
+        return picture;
+    }
+
+    /**
+     * Repaints the damaged area of the retained bitmap.
+     *
+     * Nodes may move while being redrawn, which adds their new bounds to the pending damage,
+     * so the repaint is repeated over the grown area until no node outside of it changed.
+     */
+    private void drawDirtyRegion() {
+        mDamaged = false;
+        RectF dirty = new RectF(mDirtyRect);
+        mDirtyRect.setEmpty();
+        Canvas canvas = new Canvas(mBitmap);
+        Rect damage = new Rect();
+
+        mTrackDamage = true;
+        for (int pass = 0; pass < MAX_DAMAGE_PASSES; pass++) {
+            mPendingDamage.setEmpty();
+            dirty.roundOut(damage);
+
+            int count = canvas.save();
+            canvas.clipRect(damage);
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            mDamage = damage;
+            drawChildren(canvas);
+            mDamage = null;
+            canvas.restoreToCount(count);
+
+            if (mPendingDamage.isEmpty() || dirty.contains(mPendingDamage)) {
+                mTrackDamage = false;
+                return;
+            }
+            dirty.union(mPendingDamage);
+        }
+        mTrackDamage = false;
+
+        // The damage keeps growing, repaint everything
+        mBitmap.eraseColor(Color.TRANSPARENT);
+        drawChildren(new Canvas(mBitmap));
+    }
+
     Rect getCanvasBounds() {
-        return mCanvas.getClipBounds();
+        return getCanvasBounds(mCanvas);
+    }
+
+    /**
+     * Returns true if the canvas draws into the output of this view, as opposed to
+     * an offscreen canvas used for masks and patterns, which has its own coordinate space.
+     */
+    boolean isOutputCanvas(Canvas canvas) {
+        return canvas == mCanvas && !isSnapshotting();
+    }
+
+    /**
+     * Returns true while the root svg renders a snapshot, which must leave the layout and hit
+     * test state of the on-screen rendering alone.
+     */
+    boolean isSnapshotting() {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().isSnapshotting();
+        }
+        return mSnapshotMatrix != null;
+    }
+
+    /**
+     * Returns the clip bounds of the canvas, ignoring the clip to the damaged area applied
+     * during partial redraws, so that relative lengths resolve identically in both cases.
+     * Snapshots resolve them against the view as drawn on screen as well, not against the
+     * region they render.
+     */
+    Rect getCanvasBounds(Canvas canvas) {
+        ViewParent parent = getParent();
+        if (mDamage == null && parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().getCanvasBounds(canvas);
+        }
+        if ((mDamage == null && mTile == null && mSnapshotMatrix == null) || canvas != mCanvas) {
+            return canvas.getClipBounds();
+        }
+        Matrix matrix = getOutputMatrix(canvas);
+        Matrix inverse = new Matrix();
+        if (mSnapshotMatrix != null) {
+            // Replace the snapshot transform by the viewBox transform of the view
+            if (!mSnapshotMatrix.invert(inverse)) {
+                return canvas.getClipBounds();
+            }
+            matrix.postConcat(inverse);
+            if (mAlign != null) {
+                RectF viewRect = new RectF(0, 0, getWidth(), getHeight());
+                matrix.postConcat(ViewBox.getTransform(getViewBox(), viewRect, mAlign, mMeetOrSlice));
+            }
+        }
+        if (!matrix.invert(inverse)) {
+            return canvas.getClipBounds();
+        }
+        RectF bounds = new RectF(0, 0, getWidth(), getHeight());
+        inverse.mapRect(bounds);
+        Rect clipBounds = new Rect();
+        bounds.roundOut(clipBounds);
+        return clipBounds;
+    }
+
+    /**
+     * Returns the area actually drawn by the canvas, which differs from {@link #getCanvasBounds}
+     * while rendering a snapshot of a region, possibly outside of the view.
+     */
+    Rect getDrawBounds(Canvas canvas) {
+        if (isSnapshotting()) {
+            return canvas.getClipBounds();
+        }
+        return getCanvasBounds(canvas);
+    }
+
+    /**
+     * Returns the transform from the canvas to view coordinates, which also undoes the
+     * translation of the tile being rendered in tiled mode.
+     */
+    Matrix getOutputMatrix(Canvas canvas) {
+        // We create the canvas ourselves, thus we can depend on getMatrix
+        @SuppressWarnings("deprecation")
+        Matrix matrix = new Matrix(canvas.getMatrix());
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            SvgView root = ((VirtualView) parent).getSvgView();
+            if (canvas == root.mCanvas && root.mTile != null) {
+                matrix.postTranslate(root.mTile.left, root.mTile.top);
+            }
+        } else if (canvas == mCanvas && mTile != null) {
+            matrix.postTranslate(mTile.left, mTile.top);
+        }
+        return matrix;
     }
 
     void drawChildren(final Canvas canvas) {
         mRendered = true;
         mCanvas = canvas;
-        if (mAlign != null) {
+        // Snapshots leave the hit test index of the view alone
+        boolean root = !(getParent() instanceof VirtualView) && mSnapshotMatrix == null;
+        if (root) {
+            mHitIndex.beginUpdate();
+        }
+        if (mSnapshotMatrix != null) {
+            canvas.concat(mSnapshotMatrix);
+        } else if (mAlign != null) {
             RectF vbRect = getViewBox();
-            float width = canvas.getWidth();
-            float height = canvas.getHeight();
+            // Tiles are laid out in the full size of the view
+            float width = mTile != null ? getWidth() : canvas.getWidth();
+            float height = mTile != null ? getHeight() : canvas.getHeight();
             boolean nested = getParent() instanceof VirtualView;
             if (nested) {
                 width = (float) PropHelper.fromRelative(mbbWidth, width, 0f, mScale, 12);
@@ -266,19 +1045,28 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         paint.setTypeface(Typeface.DEFAULT);
 
 
+        RenderStats stats = getRenderStats();
+        long definitionsStart = stats.begin(RenderStats.PHASE_DEFINITIONS);
         for (int i = 0; i < getChildCount(); i++) {
             View node = getChildAt(i);
             if (node instanceof VirtualView) {
                 ((VirtualView)node).saveDefinition();
             }
         }
+        stats.end(RenderStats.PHASE_DEFINITIONS, definitionsStart);
 
         for (int i = 0; i < getChildCount(); i++) {
             View lNode = getChildAt(i);
             if (lNode instanceof VirtualView) {
                 VirtualView node = (VirtualView)lNode;
                 int count = node.saveAndSetupCanvas(canvas);
-                node.render(canvas, paint, 1f);
+                if (node.quickReject(canvas)) {
+                    if (isOutputCanvas(canvas)) {
+                        node.keepRenderBounds();
+                    }
+                } else {
+                    node.render(canvas, paint, 1f);
+                }
                 node.restoreCanvas(canvas, count);
 
                 if (node.isResponsible() && !mResponsible) {
@@ -286,6 +1074,10 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
                 }
             }
         }
+
+        if (root) {
+            mHitIndex.endUpdate();
+        }
     }
 
     private RectF getViewBox() {
@@ -293,15 +1085,112 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
     }
 
     String toDataURL() {
-        Bitmap bitmap = Bitmap.createBitmap(
-                getWidth(),
-                getHeight(),
-                Bitmap.Config.ARGB_8888);
+        Bitmap bitmap = drawSnapshot();
+        return encode(bitmap, Bitmap.CompressFormat.PNG, 100);
+    }
 
-        drawChildren(new Canvas(bitmap));
+    Bitmap drawSnapshot() {
+        return drawSnapshot(getWidth(), getHeight(), null);
+    }
+
+    /**
+     * Renders the tree into a pooled bitmap of the given size, to be released by the caller.
+     *
+     * The region, in viewBox units (or dp without a viewBox), is fit into the bitmap like the
+     * viewBox is fit into the view. Without a region the whole view is scaled to the size.
+     * The tree is rendered at the size of the bitmap, not rendered at the view size and scaled.
+     * Large snapshots are recorded once and rasterized in tiles on several threads.
+     */
+    Bitmap drawSnapshot(int width, int height, @Nullable RectF region) {
+        RectF eRect = new RectF(0, 0, width, height);
+        Matrix matrix;
+        if (region != null) {
+            RectF vbRect = new RectF(
+                    region.left * mScale,
+                    region.top * mScale,
+                    region.right * mScale,
+                    region.bottom * mScale);
+            String align = mAlign != null ? mAlign : "xMidYMid";
+            int meetOrSlice = mAlign != null ? mMeetOrSlice : 0;
+            matrix = ViewBox.getTransform(vbRect, eRect, align, meetOrSlice);
+        } else {
+            matrix = new Matrix();
+            if (mAlign != null) {
+                RectF viewRect = new RectF(0, 0, getWidth(), getHeight());
+                matrix.set(ViewBox.getTransform(getViewBox(), viewRect, mAlign, mMeetOrSlice));
+            }
+            matrix.postScale(width / (float) getWidth(), height / (float) getHeight());
+        }
+
+        Bitmap bitmap = acquireBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = mCanvas;
+        ArrayList<VirtualView> unbuilt = new ArrayList<>();
+        collectUnbuiltNodes(this, unbuilt);
+        mSnapshotMatrix = matrix;
+        try {
+            if (TileRasterizer.shouldSplit(width, height)) {
+                ArrayList<Bitmap> pictureBitmaps = new ArrayList<>();
+                rasterize(recordPicture(width, height, null, pictureBitmaps), bitmap);
+                for (Bitmap pictureBitmap : pictureBitmaps) {
+                    BitmapPool.release(pictureBitmap);
+                }
+            } else {
+                drawChildren(new Canvas(bitmap));
+            }
+        } finally {
+            mSnapshotMatrix = null;
+            mCanvas = canvas;
+            // The paths were built for the snapshot, the view builds its own when drawn
+            for (VirtualView node : unbuilt) {
+                node.clearSnapshotCache();
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Collects the nodes of the group which have no path built yet.
+     */
+    private static void collectUnbuiltNodes(ViewGroup group, List<VirtualView> nodes) {
+        for (int i = 0; i < group.getChildCount(); i++) {
+            View node = group.getChildAt(i);
+            if (node instanceof VirtualView && ((VirtualView) node).mPath == null) {
+                nodes.add((VirtualView) node);
+            }
+            if (node instanceof ViewGroup) {
+                collectUnbuiltNodes((ViewGroup) node, nodes);
+            }
+        }
+    }
+
+    /**
+     * Compresses the bitmap straight into the file, releasing the bitmap to the pool.
+     */
+    static void write(Bitmap bitmap, Bitmap.CompressFormat format, int quality, File file) throws IOException {
+        OutputStream stream = null;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(file));
+            if (!bitmap.compress(format, quality, stream)) {
+                throw new IOException("RNSVG: Could not compress the snapshot into " + file);
+            }
+        } finally {
+            BitmapPool.release(bitmap);
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Compresses the bitmap and returns it Base64 encoded, releasing the bitmap to the pool.
+     */
+    static String encode(Bitmap bitmap, Bitmap.CompressFormat format, int quality) {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-        bitmap.recycle();
+        try {
+            bitmap.compress(format, quality, stream);
+        } finally {
+            BitmapPool.release(bitmap);
+        }
         byte[] bitmapBytes = stream.toByteArray();
         return Base64.encodeToString(bitmapBytes, Base64.DEFAULT);
     }
@@ -324,23 +1213,69 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         float[] transformed = { touchX, touchY };
         mInvViewBoxMatrix.mapPoints(transformed);
 
+        boolean root = !(getParent() instanceof VirtualView);
+        long hitTestStart = 0;
+        if (root) {
+            hitTestStart = mRenderStats.begin(RenderStats.PHASE_HIT_TEST);
+            mHitCandidates.clear();
+            mHitIndex.query(touchX, touchY, mHitCandidates);
+            mHitTesting = true;
+        }
+
         int count = getChildCount();
         int viewTag = -1;
-        for (int i = count - 1; i >= 0; i--) {
-            View child = getChildAt(i);
-            if (child instanceof VirtualView) {
-                viewTag = ((VirtualView) child).hitTest(transformed);
-            } else if (child instanceof SvgView) {
-                viewTag = ((SvgView) child).hitTest(touchX, touchY);
+        try {
+            for (int i = count - 1; i >= 0; i--) {
+                View child = getChildAt(i);
+                if (child instanceof VirtualView) {
+                    viewTag = ((VirtualView) child).hitTest(transformed);
+                } else if (child instanceof SvgView) {
+                    viewTag = ((SvgView) child).hitTest(touchX, touchY);
+                }
+                if (viewTag != -1) {
+                    break;
+                }
             }
-            if (viewTag != -1) {
-                break;
+        } finally {
+            if (root) {
+                mHitTesting = false;
+                mHitCandidates.clear();
+                mRenderStats.end(RenderStats.PHASE_HIT_TEST, hitTestStart);
             }
         }
 
         return viewTag == -1 ? getId() : viewTag;
     }
 
+    /**
+     * Keeps the device space bounds of a rendered node in the hit test index. Only nodes
+     * rendered in place by the root svg are indexed, definitions may be drawn elsewhere
+     * through use elements and nested svg elements are hit tested in their own space.
+     */
+    void indexHitBounds(VirtualView node, @Nullable RectF bounds) {
+        if (getParent() instanceof VirtualView) {
+            return;
+        }
+        if (bounds == null || node.isDefinition() ||
+                (node instanceof GroupView && ((GroupView) node).hasNestedSvg())) {
+            mHitIndex.remove(node);
+        } else {
+            mHitIndex.update(node, bounds);
+        }
+    }
+
+    /**
+     * Returns false if the node is known not to contain the point of the current hit test,
+     * letting it skip its exact (region based) test.
+     */
+    boolean mayHit(VirtualView node) {
+        ViewParent parent = getParent();
+        if (parent instanceof VirtualView) {
+            return ((VirtualView) parent).getSvgView().mayHit(node);
+        }
+        return !mHitTesting || mHitCandidates.contains(node) || !mHitIndex.contains(node);
+    }
+
     void defineClipPath(VirtualView clipPath, String clipPathRef) {
         mDefinedClipPaths.put(clipPathRef, clipPath);
     }
@@ -358,7 +1293,10 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
     }
 
     void defineBrush(Brush brush, String brushRef) {
-        mDefinedBrushes.put(brushRef, brush);
+        Brush previous = mDefinedBrushes.put(brushRef, brush);
+        if (previous != null && previous != brush) {
+            previous.release();
+        }
     }
 
     Brush getDefinedBrush(String brushRef) {
@@ -99,6 +99,16 @@ class SvgViewManager extends ReactViewManager {
         node.setBbHeight(bbHeight);
     }
 
+    @ReactProp(name = "renderMode")
+    public void setRenderMode(SvgView node, @Nullable String renderMode) {
+        node.setRenderMode(renderMode);
+    }
+
+    @ReactProp(name = "backgroundRenderPolicy")
+    public void setBackgroundRenderPolicy(SvgView node, @Nullable String policy) {
+        node.setBackgroundRenderPolicy(policy);
+    }
+
     @ReactProp(name = "align")
     public void setAlign(SvgView node, String align) {
         node.setAlign(align);
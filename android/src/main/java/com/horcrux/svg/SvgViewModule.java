@@ -9,10 +9,28 @@
 
 package com.horcrux.svg;
 
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.os.AsyncTask;
+
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+
+import javax.annotation.Nullable;
 
 class SvgViewModule extends ReactContextBaseJavaModule {
     SvgViewModule(ReactApplicationContext reactContext) {
@@ -26,11 +44,344 @@ class SvgViewModule extends ReactContextBaseJavaModule {
 
 
     @ReactMethod
-    public void toDataURL(int tag, Callback successCallback) {
-        SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+    public void toDataURL(final int tag, final Callback successCallback) {
+        // Rendering touches the view state used by onDraw, which runs on the ui thread
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+
+                if (svg != null) {
+                    successCallback.invoke(svg.toDataURL());
+                }
+            }
+        });
+    }
+
+    /**
+     * Renders the svg on the ui thread, then compresses and encodes it in the background.
+     * Options are the format (png, jpeg or webp) and the quality, from 0 to 1.
+     */
+    @ReactMethod
+    public void toDataURLAsync(int tag, @Nullable ReadableMap options, final Promise promise) {
+        final Bitmap.CompressFormat format = getFormat(options, promise);
+        if (format == null) {
+            return;
+        }
+        final int quality = getQuality(options);
+        Integer background = getBackgroundColor(options, format, promise);
+        if (background == null) {
+            return;
+        }
+
+        snapshot(tag, options, background, promise, new SnapshotTask() {
+            @Override
+            public void run(Bitmap bitmap) throws Exception {
+                promise.resolve(SvgView.encode(bitmap, format, quality));
+            }
+        });
+    }
 
-        if (svg != null) {
-            successCallback.invoke(svg.toDataURL());
+    /**
+     * Like {@link #toDataURLAsync}, but streams the compressed image into a file and resolves
+     * with its uri, so the image never goes through the bridge. Writes to the path option,
+     * or a new file in the cache directory.
+     */
+    @ReactMethod
+    public void toFile(int tag, @Nullable ReadableMap options, final Promise promise) {
+        final Bitmap.CompressFormat format = getFormat(options, promise);
+        if (format == null) {
+            return;
+        }
+        final int quality = getQuality(options);
+        final String path = options != null && options.hasKey("path") ? options.getString("path") : null;
+        final String extension = format == Bitmap.CompressFormat.PNG ? ".png" :
+                format == Bitmap.CompressFormat.JPEG ? ".jpg" : ".webp";
+        Integer background = getBackgroundColor(options, format, promise);
+        if (background == null) {
+            return;
         }
+
+        snapshot(tag, options, background, promise, new SnapshotTask() {
+            @Override
+            public void run(Bitmap bitmap) throws Exception {
+                File file;
+                try {
+                    file = path != null ? new File(path) :
+                            File.createTempFile("svg", extension, getReactApplicationContext().getCacheDir());
+                } catch (Exception e) {
+                    BitmapPool.release(bitmap);
+                    throw e;
+                }
+                SvgView.write(bitmap, format, quality, file);
+                promise.resolve(Uri.fromFile(file).toString());
+            }
+        });
+    }
+
+    private interface SnapshotTask {
+        /**
+         * Runs in the background with the rendered bitmap, which the task releases.
+         */
+        void run(Bitmap bitmap) throws Exception;
+    }
+
+    /**
+     * Renders the svg on the ui thread and hands the bitmap to the task on a background thread.
+     *
+     * The output size is given by the width and height options, or the scale of the view size.
+     * A missing dimension keeps the aspect ratio of the region option, an {x, y, width, height}
+     * rect in viewBox units, or of the view. The bitmap is drawn over the background color,
+     * unless it is transparent.
+     */
+    private static void snapshot(final int tag, @Nullable final ReadableMap options, final int background,
+                                 final Promise promise, final SnapshotTask task) {
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+                if (svg == null) {
+                    promise.reject("E_NO_VIEW", "RNSVG: No svg view with tag " + tag);
+                    return;
+                }
+                if (svg.getWidth() < 1 || svg.getHeight() < 1) {
+                    promise.reject("E_EMPTY_VIEW", "RNSVG: Svg view " + tag + " has no size");
+                    return;
+                }
+
+                RectF region = null;
+                double aspectRatio = svg.getWidth() / (double) svg.getHeight();
+                if (options != null && options.hasKey("region") && !options.isNull("region")) {
+                    ReadableMap r = options.getType("region") == ReadableType.Map ? options.getMap("region") : null;
+                    if (r == null || !isNumber(r, "width") || !isNumber(r, "height") ||
+                            (r.hasKey("x") && !isNumber(r, "x")) || (r.hasKey("y") && !isNumber(r, "y"))) {
+                        promise.reject("E_INVALID_REGION", "RNSVG: The snapshot region must be an {x, y, width, height} rect");
+                        return;
+                    }
+                    float x = r.hasKey("x") ? (float) r.getDouble("x") : 0;
+                    float y = r.hasKey("y") ? (float) r.getDouble("y") : 0;
+                    region = new RectF(x, y, x + (float) r.getDouble("width"), y + (float) r.getDouble("height"));
+                    if (!(region.width() > 0 && region.height() > 0)) {
+                        promise.reject("E_INVALID_REGION", "RNSVG: Empty snapshot region");
+                        return;
+                    }
+                    aspectRatio = region.width() / (double) region.height();
+                }
+                if ((options != null && options.hasKey("scale") && !isNumber(options, "scale")) ||
+                        (options != null && options.hasKey("width") && !isNumber(options, "width")) ||
+                        (options != null && options.hasKey("height") && !isNumber(options, "height"))) {
+                    promise.reject("E_INVALID_SIZE", "RNSVG: The snapshot width, height and scale must be numbers");
+                    return;
+                }
+                double scale = options != null && options.hasKey("scale") ? options.getDouble("scale") : 1;
+                boolean hasWidth = options != null && options.hasKey("width");
+                boolean hasHeight = options != null && options.hasKey("height");
+                double width = hasWidth ? options.getDouble("width") :
+                        hasHeight ? options.getDouble("height") * aspectRatio : svg.getWidth() * scale;
+                double height = hasHeight ? options.getDouble("height") :
+                        hasWidth ? width / aspectRatio : svg.getHeight() * scale;
+                if (region != null && !hasWidth && !hasHeight) {
+                    // Keep the resolution of the view over the region
+                    height = width / aspectRatio;
+                }
+                if (!(width >= 1 && height >= 1) || width * height > getMaxSnapshotPixels()) {
+                    promise.reject("E_INVALID_SIZE", "RNSVG: Invalid snapshot size " + width + "x" + height);
+                    return;
+                }
+                int w = (int) Math.round(width);
+                int h = (int) Math.round(height);
+
+                final Bitmap bitmap;
+                try {
+                    bitmap = svg.drawSnapshot(w, h, region);
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    promise.reject("E_RENDER", "RNSVG: Could not render the snapshot", e);
+                    return;
+                }
+                AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (Color.alpha(background) != 0) {
+                                new Canvas(bitmap).drawColor(background, PorterDuff.Mode.DST_OVER);
+                            }
+                            task.run(bitmap);
+                        } catch (Exception e) {
+                            promise.reject("E_ENCODE", e);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static boolean isNumber(ReadableMap map, String key) {
+        return map.hasKey(key) && map.getType(key) == ReadableType.Number;
+    }
+
+    /**
+     * Snapshots are ARGB bitmaps, which may take up a quarter of the heap at most.
+     */
+    private static double getMaxSnapshotPixels() {
+        return Runtime.getRuntime().maxMemory() / 4 / 4;
+    }
+
+    private static @Nullable Bitmap.CompressFormat getFormat(@Nullable ReadableMap options, Promise promise) {
+        String format = options != null && options.hasKey("format") ? options.getString("format") : "png";
+        switch (format) {
+            case "png":
+                return Bitmap.CompressFormat.PNG;
+            case "jpeg":
+            case "jpg":
+                return Bitmap.CompressFormat.JPEG;
+            case "webp":
+                return Bitmap.CompressFormat.WEBP;
+            default:
+                promise.reject("E_INVALID_FORMAT", "RNSVG: Unsupported format: " + format);
+                return null;
+        }
+    }
+
+    /**
+     * Returns the backgroundColor option, a color number or string. JPEG has no alpha channel,
+     * its transparent areas would come out black, so it defaults to white there.
+     */
+    private static @Nullable Integer getBackgroundColor(@Nullable ReadableMap options, Bitmap.CompressFormat format, Promise promise) {
+        if (options == null || !options.hasKey("backgroundColor") || options.isNull("backgroundColor")) {
+            return format == Bitmap.CompressFormat.JPEG ? Color.WHITE : Color.TRANSPARENT;
+        }
+        try {
+            if (options.getType("backgroundColor") == ReadableType.Number) {
+                return (int) (long) options.getDouble("backgroundColor");
+            }
+            return Color.parseColor(options.getString("backgroundColor"));
+        } catch (RuntimeException e) {
+            promise.reject("E_INVALID_COLOR", "RNSVG: Invalid snapshot background color", e);
+            return null;
+        }
+    }
+
+    private static int getQuality(@Nullable ReadableMap options) {
+        double quality = options != null && options.hasKey("quality") ? options.getDouble("quality") : 1;
+        return (int) Math.round(Math.max(0, Math.min(1, quality)) * 100);
+    }
+
+    @ReactMethod
+    public void setRenderStatsEnabled(boolean enabled, boolean trace) {
+        RenderStats.setEnabled(enabled, trace);
+    }
+
+    @ReactMethod
+    public void getRenderStats(final int tag, final boolean reset, final Callback successCallback) {
+        // The statistics are written by onDraw, read and reset them on the same thread
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+
+                if (svg != null) {
+                    RenderStats stats = svg.getRenderStats();
+                    WritableMap map = stats.toMap();
+                    if (reset) {
+                        stats.reset();
+                    }
+                    successCallback.invoke(map);
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getBackgroundRenderStats(final int tag, final Callback successCallback) {
+        // The frame state is only touched by the ui thread
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+
+                if (svg != null) {
+                    successCallback.invoke(svg.getBackgroundRenderStats());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getTileCacheStats(final int tag, final Callback successCallback) {
+        // Tiles are drawn and evicted by the ui thread
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                SvgView svg = SvgViewManager.getSvgViewByTag(tag);
+
+                if (svg != null) {
+                    successCallback.invoke(svg.getTileCacheStats());
+                }
+            }
+        });
+    }
+
+    @ReactMethod
+    public void setTileCacheSize(int maxBytes) {
+        TileCache.setMaxSize(maxBytes);
+    }
+
+    @ReactMethod
+    public void setBitmapPoolSize(int maxBytes) {
+        BitmapPool.setMaxSize(maxBytes);
+    }
+
+    @ReactMethod
+    public void clearBitmapPool() {
+        BitmapPool.clear();
+    }
+
+    @ReactMethod
+    public void getPathCacheStats(Callback successCallback) {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("entries", PathCache.getEntryCount());
+        stats.putInt("size", PathCache.getSize());
+        stats.putDouble("hits", PathCache.getHitCount());
+        stats.putDouble("misses", PathCache.getMissCount());
+        stats.putDouble("evictions", PathCache.getEvictionCount());
+        successCallback.invoke(stats);
+    }
+
+    @ReactMethod
+    public void setPathCacheSize(int maxEntries, int maxSize) {
+        PathCache.setMaxSize(maxEntries, maxSize);
+    }
+
+    @ReactMethod
+    public void setApproximateStrokeHitTest(boolean approximate) {
+        RenderableView.setApproximateStrokeHitTest(approximate);
+    }
+
+    @ReactMethod
+    public void getGlyphCacheStats(Callback successCallback) {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("entries", GlyphPathCache.getEntryCount());
+        stats.putDouble("hits", GlyphPathCache.getHitCount());
+        stats.putDouble("misses", GlyphPathCache.getMissCount());
+        successCallback.invoke(stats);
+    }
+
+    @ReactMethod
+    public void setGlyphCacheSize(int maxEntries) {
+        GlyphPathCache.setMaxSize(maxEntries);
+    }
+
+    @ReactMethod
+    public void getTextRunCacheStats(Callback successCallback) {
+        WritableMap stats = Arguments.createMap();
+        stats.putInt("entries", TextRunCache.getEntryCount());
+        stats.putDouble("hits", TextRunCache.getHitCount());
+        stats.putDouble("misses", TextRunCache.getMissCount());
+        successCallback.invoke(stats);
+    }
+
+    @ReactMethod
+    public void setTextRunCacheSize(int maxEntries) {
+        TextRunCache.setMaxSize(maxEntries);
     }
 }
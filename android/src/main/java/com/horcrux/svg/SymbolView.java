@@ -18,6 +18,8 @@ import android.graphics.RectF;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.uimanager.annotations.ReactProp;
 
+import javax.annotation.Nullable;
+
 @SuppressLint("ViewConstructor")
 class SymbolView extends GroupView {
 
@@ -74,12 +76,37 @@ class SymbolView extends GroupView {
     }
 
     void drawSymbol(Canvas canvas, Paint paint, float opacity, float width, float height) {
-        if (mAlign != null) {
-            RectF vbRect = new RectF(mMinX * mScale, mMinY * mScale, (mMinX + mVbWidth) * mScale, (mMinY + mVbHeight) * mScale);
-            RectF eRect = new RectF(0, 0, width, height);
-            Matrix viewBoxMatrix = ViewBox.getTransform(vbRect, eRect, mAlign, mMeetOrSlice);
+        Matrix viewBoxMatrix = getViewBoxMatrix(width, height);
+        if (viewBoxMatrix != null) {
             canvas.concat(viewBoxMatrix);
             super.draw(canvas, paint, opacity);
         }
     }
+
+    /**
+     * Returns the bounds of the last drawSymbol call with the same size, or null if unknown.
+     */
+    @Nullable RectF getSymbolCullBounds(float width, float height) {
+        Matrix viewBoxMatrix = getViewBoxMatrix(width, height);
+        if (viewBoxMatrix == null) {
+            // Nothing is drawn
+            return new RectF();
+        }
+        RectF cullBounds = getCullBounds();
+        if (cullBounds == null) {
+            return null;
+        }
+        RectF bounds = new RectF(cullBounds);
+        viewBoxMatrix.mapRect(bounds);
+        return bounds;
+    }
+
+    private @Nullable Matrix getViewBoxMatrix(float width, float height) {
+        if (mAlign == null) {
+            return null;
+        }
+        RectF vbRect = new RectF(mMinX * mScale, mMinY * mScale, (mMinX + mVbWidth) * mScale, (mMinY + mVbHeight) * mScale);
+        RectF eRect = new RectF(0, 0, width, height);
+        return ViewBox.getTransform(vbRect, eRect, mAlign, mMeetOrSlice);
+    }
 }
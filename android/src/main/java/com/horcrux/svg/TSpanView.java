@@ -18,7 +18,6 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PathMeasure;
 import android.graphics.Rect;
-import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.os.Build;
 import android.view.ViewParent;
@@ -29,6 +28,8 @@ import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.views.text.ReactFontManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -47,6 +48,9 @@ class TSpanView extends TextView {
     private static final String OTF = ".otf";
     private static final String TTF = ".ttf";
 
+    // Resolved typefaces, so glyph outlines cached per typeface are found again
+    private static final Map<String, Typeface> sTypefaces = new HashMap<>();
+
     @Nullable String mContent;
     private TextPathView textPath;
     ArrayList<String> emoji = new ArrayList<>();
@@ -99,9 +103,12 @@ class TSpanView extends TextView {
 
         setupTextPath();
 
+        RenderStats stats = getSvgView().getRenderStats();
+        long textStart = stats.begin(RenderStats.PHASE_TEXT);
         pushGlyphContext();
         mPath = getLinePath(mContent, paint, canvas);
         popGlyphContext();
+        stats.end(RenderStats.PHASE_TEXT, textStart);
 
         return mPath;
     }
@@ -131,8 +138,6 @@ class TSpanView extends TextView {
         GlyphContext gc = getTextRootGlyphContext();
         FontData font = gc.getFont();
         applyTextPropertiesToPaint(paint, font);
-        GlyphPathBag bag = new GlyphPathBag(paint);
-        boolean[] ligature = new boolean[length];
         final char[] chars = line.toCharArray();
 
         /*
@@ -280,8 +285,9 @@ class TSpanView extends TextView {
         // OpenType.js font data
         ReadableMap fontData = font.fontData;
 
-        float[] advances = new float[length];
-        paint.getTextWidths(line, advances);
+        // Measured once per text and paint state, spacing and kerning are applied below
+        final TextRunCache.TextRun run = TextRunCache.get(paint, line);
+        final float[] advances = run.advances;
 
         /*
         This would give both advances and textMeasure in one call / looping over the text
@@ -311,7 +317,7 @@ class TSpanView extends TextView {
             attributes, such as a ‘dx’ attribute value on a ‘tspan’ element.
          */
         final TextAnchor textAnchor = font.textAnchor;
-        final double textMeasure = paint.measureText(line);
+        final double textMeasure = run.width;
         double offset = getTextAnchorOffset(textAnchor, textMeasure);
 
         int side = 1;
@@ -699,30 +705,14 @@ class TSpanView extends TextView {
 
         for (int index = 0; index < length; index++) {
             char currentChar = chars[index];
-            String current = String.valueOf(currentChar);
-            boolean alreadyRenderedGraphemeCluster = ligature[index];
+            int clusterEnd = run.clusterEnds[index];
+            boolean alreadyRenderedGraphemeCluster = clusterEnd == 0;
 
             /*
                 Determine the glyph's charwidth (i.e., the amount which the current text position
                 advances horizontally when the glyph is drawn using horizontal text layout).
             */
-            boolean hasLigature = false;
-            if (alreadyRenderedGraphemeCluster) {
-                current = "";
-            } else {
-                int nextIndex = index;
-                while (++nextIndex < length) {
-                    float nextWidth = advances[nextIndex];
-                    if (nextWidth > 0) {
-                        break;
-                    }
-                    String nextLigature = current + String.valueOf(chars[nextIndex]);
-                    ligature[nextIndex] = true;
-                    current = nextLigature;
-                    hasLigature = true;
-                }
-            }
-            double charWidth = paint.measureText(current) * scaleSpacingAndGlyphs;
+            double charWidth = run.clusterWidths[index] * scaleSpacingAndGlyphs;
 
             /*
                 For each subsequent glyph, set a new startpoint-on-the-path as the previous
@@ -865,17 +855,9 @@ class TSpanView extends TextView {
             mid.preRotate((float) r);
 
 
-            Path glyph;
-            if (hasLigature) {
-                glyph = new Path();
-                paint.getTextPath(current, 0, current.length(), 0, 0, glyph);
-            } else {
-                glyph = bag.getOrCreateAndCache(currentChar, current);
-            }
-            RectF bounds = new RectF();
-            glyph.computeBounds(bounds, true);
-            float width = bounds.width();
-            if (width == 0) { // Render unicode emoji
+            String current = line.substring(index, clusterEnd);
+            GlyphPathCache.Glyph glyph = GlyphPathCache.get(paint, current);
+            if (glyph.width == 0) { // Render unicode emoji
                 canvas.save();
                 canvas.concat(mid);
                 emoji.add(current);
@@ -883,8 +865,7 @@ class TSpanView extends TextView {
                 canvas.drawText(current, 0, 0, paint);
                 canvas.restore();
             } else {
-                glyph.transform(mid);
-                path.addPath(glyph);
+                path.addPath(glyph.path, mid);
             }
         }
 
@@ -940,8 +921,29 @@ class TSpanView extends TextView {
             fontStyle = Typeface.NORMAL;
         }
 
-        Typeface typeface = null;
         final String fontFamily = font.fontFamily;
+        final String typefaceKey = fontFamily + '-' + fontStyle;
+        Typeface typeface = sTypefaces.get(typefaceKey);
+        if (typeface == null) {
+            typeface = createTypeface(fontFamily, fontStyle, assetManager);
+            if (typeface != null) {
+                sTypefaces.put(typefaceKey, typeface);
+            }
+        }
+
+        // NB: if the font family is null / unsupported, the default one will be used
+        paint.setTypeface(typeface);
+        paint.setTextSize((float) fontSize);
+        paint.setTextAlign(Paint.Align.LEFT);
+
+        // Do these have any effect for anyone? Not for me (@msand) at least.
+        // paint.setUnderlineText(underlineText);
+        // paint.setStrikeThruText(strikeThruText);
+    }
+
+    @Nullable
+    private static Typeface createTypeface(String fontFamily, int fontStyle, AssetManager assetManager) {
+        Typeface typeface = null;
         try {
             String path = FONTS + fontFamily + OTF;
             typeface = Typeface.createFromAsset(assetManager, path);
@@ -956,15 +958,7 @@ class TSpanView extends TextView {
                 }
             }
         }
-
-        // NB: if the font family is null / unsupported, the default one will be used
-        paint.setTypeface(typeface);
-        paint.setTextSize((float) fontSize);
-        paint.setTextAlign(Paint.Align.LEFT);
-
-        // Do these have any effect for anyone? Not for me (@msand) at least.
-        // paint.setUnderlineText(underlineText);
-        // paint.setStrikeThruText(strikeThruText);
+        return typeface;
     }
 
     private void setupTextPath() {
@@ -987,7 +981,7 @@ class TSpanView extends TextView {
         if (mContent == null) {
             return super.hitTest(src);
         }
-        if (mPath == null || !mInvertible || !mTransformInvertible) {
+        if (mPath == null || !mInvertible || !mTransformInvertible || !getSvgView().mayHit(this)) {
             return -1;
         }
 
@@ -997,28 +991,15 @@ class TSpanView extends TextView {
         int x = Math.round(dst[0]);
         int y = Math.round(dst[1]);
 
-        if (mRegion == null && mFillPath != null) {
-            mRegion = getRegion(mFillPath);
-        }
-        if (mStrokeRegion == null && mStrokePath != null) {
-            mStrokeRegion = getRegion(mStrokePath);
-        }
-        if (
-            (mRegion == null || !mRegion.contains(x, y)) &&
-            (mStrokeRegion == null || !mStrokeRegion.contains(x, y))
-        ) {
+        // The stroke outline is only computed when the fill misses
+        boolean hit = mFillPath != null && HitRegionCache.contains(mFillPath, x, y);
+        if (!hit && !strokeContains(dst[0], dst[1], x, y)) {
             return -1;
         }
 
         Path clipPath = getClipPath();
-        if (clipPath != null) {
-            if (mClipRegionPath != clipPath) {
-                mClipRegionPath = clipPath;
-                mClipRegion = getRegion(clipPath);
-            }
-            if (!mClipRegion.contains(x, y)) {
-                return -1;
-            }
+        if (clipPath != null && !HitRegionCache.contains(clipPath, x, y)) {
+            return -1;
         }
 
         return getId();
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Picture;
+import android.graphics.RectF;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Renderings of a template shared by the use elements referencing it, keyed by the inherited
+ * properties, opacity and size the template is drawn with.
+ *
+ * A rendering is drawn directly the first time, which finds out its bounds, and recorded into
+ * a picture when drawn again, later uses only replay the picture at their own transform.
+ * Templates drawing bitmaps (images, masks, patterns) are never recorded, the bitmaps may be
+ * reused while the picture is alive.
+ */
+class TemplateCache {
+    private static final int MAX_ENTRIES = 8;
+
+    static final class Entry {
+        // Bounds in the space of the template
+        final @Nullable RectF bounds;
+        final boolean recordable;
+        @Nullable Picture picture;
+
+        Entry(@Nullable RectF bounds, boolean recordable) {
+            this.bounds = bounds;
+            this.recordable = recordable && bounds != null;
+        }
+    }
+
+    private final LinkedHashMap<List<Object>, Entry> mEntries = new LinkedHashMap<List<Object>, Entry>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Nullable Entry get(List<Object> key) {
+        return mEntries.get(key);
+    }
+
+    void put(List<Object> key, Entry entry) {
+        mEntries.put(key, entry);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+
+/**
+ * Key of text cached per paint state: the typeface, text size and font feature settings
+ * the text is shaped with, and the text itself.
+ */
+class TextKey {
+    private Typeface mTypeface;
+    private float mTextSize;
+    private String mFontFeatureSettings;
+    private String mText;
+
+    void set(Paint paint, String text) {
+        mTypeface = paint.getTypeface();
+        mTextSize = paint.getTextSize();
+        mFontFeatureSettings = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            mFontFeatureSettings = paint.getFontFeatureSettings();
+        }
+        mText = text;
+    }
+
+    /**
+     * Drops the references held by a reused lookup key.
+     */
+    void clear() {
+        mTypeface = null;
+        mFontFeatureSettings = null;
+        mText = null;
+    }
+
+    TextKey copy() {
+        TextKey key = new TextKey();
+        key.mTypeface = mTypeface;
+        key.mTextSize = mTextSize;
+        key.mFontFeatureSettings = mFontFeatureSettings;
+        key.mText = mText;
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TextKey)) {
+            return false;
+        }
+        TextKey other = (TextKey) o;
+        return mTextSize == other.mTextSize &&
+                mText.equals(other.mText) &&
+                (mTypeface == null ? other.mTypeface == null : mTypeface.equals(other.mTypeface)) &&
+                (mFontFeatureSettings == null ? other.mFontFeatureSettings == null :
+                        mFontFeatureSettings.equals(other.mFontFeatureSettings));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mText.hashCode();
+        result = 31 * result + Float.floatToIntBits(mTextSize);
+        result = 31 * result + (mTypeface != null ? mTypeface.hashCode() : 0);
+        result = 31 * result + (mFontFeatureSettings != null ? mFontFeatureSettings.hashCode() : 0);
+        return result;
+    }
+}
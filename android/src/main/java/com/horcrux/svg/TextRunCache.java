@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Paint;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide cache of measured text runs, keyed by the text and the paint state it is
+ * measured with.
+ *
+ * Spacing and kerning are applied by TSpanView on top of the measured advances, so they are
+ * not part of the key. Cached runs are shared and must not be modified.
+ */
+class TextRunCache {
+    private static final int DEFAULT_MAX_ENTRIES = 512;
+
+    /**
+     * Advances and grapheme clusters of a line of text.
+     */
+    static final class TextRun {
+        // Advance of each char, as in Paint.getTextWidths
+        final float[] advances;
+        // End of the cluster starting at each char, or zero for chars inside a cluster
+        final int[] clusterEnds;
+        // Measured width of the cluster starting at each char
+        final float[] clusterWidths;
+        final float width;
+
+        TextRun(float[] advances, int[] clusterEnds, float[] clusterWidths, float width) {
+            this.advances = advances;
+            this.clusterEnds = clusterEnds;
+            this.clusterWidths = clusterWidths;
+            this.width = width;
+        }
+    }
+
+    private static final LinkedHashMap<TextKey, TextRun> sEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private static final TextKey sLookup = new TextKey();
+    private static int sMaxEntries = DEFAULT_MAX_ENTRIES;
+    private static long sHitCount = 0;
+    private static long sMissCount = 0;
+
+    /**
+     * Returns the shared measurement of the line as drawn by the paint, measuring it on a miss.
+     */
+    static synchronized TextRun get(Paint paint, String line) {
+        sLookup.set(paint, line);
+        TextRun run = sEntries.get(sLookup);
+        if (run != null) {
+            sHitCount++;
+        } else {
+            sMissCount++;
+            run = measure(paint, line);
+            if (sMaxEntries > 0) {
+                sEntries.put(sLookup.copy(), run);
+                trimToSize(sMaxEntries);
+            }
+        }
+        sLookup.clear();
+        return run;
+    }
+
+    private static TextRun measure(Paint paint, String line) {
+        final int length = line.length();
+        float[] advances = new float[length];
+        paint.getTextWidths(line, advances);
+
+        // Chars without an advance of their own are part of the cluster before them
+        int[] clusterEnds = new int[length];
+        float[] clusterWidths = new float[length];
+        int index = 0;
+        while (index < length) {
+            int end = index + 1;
+            while (end < length && !(advances[end] > 0)) {
+                end++;
+            }
+            clusterEnds[index] = end;
+            clusterWidths[index] = paint.measureText(line.substring(index, end));
+            index = end;
+        }
+
+        return new TextRun(advances, clusterEnds, clusterWidths, paint.measureText(line));
+    }
+
+    /**
+     * Sets the maximum number of cached runs, zero disables caching.
+     */
+    static synchronized void setMaxSize(int maxEntries) {
+        sMaxEntries = maxEntries;
+        trimToSize(maxEntries);
+    }
+
+    static synchronized int getEntryCount() {
+        return sEntries.size();
+    }
+
+    static synchronized long getHitCount() {
+        return sHitCount;
+    }
+
+    static synchronized long getMissCount() {
+        return sMissCount;
+    }
+
+    private static void trimToSize(int maxEntries) {
+        Iterator<Map.Entry<TextKey, TextRun>> iterator = sEntries.entrySet().iterator();
+        while (sEntries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
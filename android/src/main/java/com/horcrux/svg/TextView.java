@@ -13,6 +13,7 @@ import android.annotation.SuppressLint;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.RectF;
 import android.graphics.Region;
 import android.view.ViewParent;
 
@@ -128,6 +129,12 @@ class TextView extends GroupView {
         invalidate();
     }
 
+    @Override
+    @Nullable RectF getCullBounds() {
+        // Glyph positions carry over between text nodes, they are always laid out
+        return null;
+    }
+
     @Override
     void draw(Canvas canvas, Paint paint, float opacity) {
         if (opacity > MIN_OPACITY_FOR_DRAW) {
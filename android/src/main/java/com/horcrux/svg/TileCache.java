@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Rendered tiles of a tiled svg view, keyed by column and row.
+ *
+ * Tiles are kept within a byte budget, evicting the least recently drawn tiles first, and go
+ * back to the {@link BitmapPool} when evicted or damaged.
+ */
+class TileCache {
+    static final int TILE_SIZE = 512;
+
+    private static final int DEFAULT_MAX_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, 32 * 1024 * 1024);
+
+    private static volatile int sMaxSize = DEFAULT_MAX_SIZE;
+
+    private final LinkedHashMap<Long, Bitmap> mTiles = new LinkedHashMap<>(16, 0.75f, true);
+    private int mSize = 0;
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+
+    static long getKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    private static int getSize(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    @Nullable Bitmap get(int column, int row) {
+        Bitmap tile = mTiles.get(getKey(column, row));
+        if (tile != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return tile;
+    }
+
+    /**
+     * Returns a cached tile like {@link #get}, without counting the lookup in the statistics.
+     */
+    @Nullable Bitmap peek(int column, int row) {
+        return mTiles.get(getKey(column, row));
+    }
+
+    /**
+     * Adds a rendered tile, the cache is only trimmed by {@link #trim} so that the tiles of the
+     * current frame stay alive until they are drawn.
+     */
+    void put(int column, int row, Bitmap tile) {
+        Bitmap previous = mTiles.put(getKey(column, row), tile);
+        mSize += getSize(tile);
+        if (previous != null) {
+            mSize -= getSize(previous);
+            BitmapPool.release(previous);
+        }
+    }
+
+    /**
+     * Drops the tiles intersecting the bounds, given in view coordinates, except for the
+     * tiles with a key in keep.
+     */
+    void invalidate(RectF bounds, @Nullable Set<Long> keep) {
+        Iterator<Map.Entry<Long, Bitmap>> iterator = mTiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Bitmap> entry = iterator.next();
+            long key = entry.getKey();
+            if (keep != null && keep.contains(key)) {
+                continue;
+            }
+            float left = (int) (key >> 32) * TILE_SIZE;
+            float top = (int) key * TILE_SIZE;
+            Bitmap tile = entry.getValue();
+            if (RectF.intersects(bounds, new RectF(left, top, left + tile.getWidth(), top + tile.getHeight()))) {
+                iterator.remove();
+                mSize -= getSize(tile);
+                BitmapPool.release(tile);
+            }
+        }
+    }
+
+    /**
+     * Evicts tiles until the cache fits its budget, never evicting the most recently
+     * drawn tiles up to the count given.
+     */
+    void trim(int keep) {
+        Iterator<Bitmap> iterator = mTiles.values().iterator();
+        int count = mTiles.size();
+        while (mSize > sMaxSize && count > keep && iterator.hasNext()) {
+            Bitmap tile = iterator.next();
+            iterator.remove();
+            count--;
+            mSize -= getSize(tile);
+            BitmapPool.release(tile);
+        }
+    }
+
+    void clear() {
+        for (Bitmap tile : mTiles.values()) {
+            BitmapPool.release(tile);
+        }
+        mTiles.clear();
+        mSize = 0;
+    }
+
+    int getTileCount() {
+        return mTiles.size();
+    }
+
+    int getByteSize() {
+        return mSize;
+    }
+
+    long getHitCount() {
+        return mHitCount;
+    }
+
+    long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Sets the byte budget of the tiles of each view, views keep at least their visible tiles.
+     */
+    static void setMaxSize(int maxSize) {
+        sMaxSize = maxSize;
+    }
+}
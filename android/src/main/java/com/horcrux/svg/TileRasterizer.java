@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2015-present, Horcrux.
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+
+package com.horcrux.svg;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rasterizes a recorded picture into tiles concurrently on a fixed pool of worker threads.
+ *
+ * The picture is the read-only snapshot of the tree, workers only replay it into the bitmap of
+ * their tile and never touch the views.
+ */
+class TileRasterizer {
+    private static final int TILE_SIZE = TileCache.TILE_SIZE;
+
+    private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private static final ExecutorService sExecutor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RNSVGTile-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static boolean isParallel() {
+        return THREAD_COUNT > 1;
+    }
+
+    /**
+     * Tiles are worth the overhead of recording a picture when there are more of them than the
+     * output fills.
+     */
+    static boolean shouldSplit(int width, int height) {
+        return isParallel() && (long) width * height > 2L * TILE_SIZE * TILE_SIZE;
+    }
+
+    /**
+     * Number of tiles drawn at once, bounding the memory held by tiles of an output.
+     */
+    static int getBatchSize() {
+        return THREAD_COUNT * 2;
+    }
+
+    /**
+     * Splits an output of the given size into tiles, row by row.
+     */
+    static List<Rect> split(int width, int height) {
+        List<Rect> tiles = new ArrayList<>();
+        for (int top = 0; top < height; top += TILE_SIZE) {
+            for (int left = 0; left < width; left += TILE_SIZE) {
+                tiles.add(new Rect(left, top, Math.min(width, left + TILE_SIZE), Math.min(height, top + TILE_SIZE)));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Draws the picture into the bitmap of each tile, blocking until every tile is done.
+     *
+     * The picture covers the output from the origin given, the tiles are given in output
+     * coordinates and their bitmaps must be of the size of the tiles.
+     */
+    static void draw(final Picture picture, final int left, final int top, List<Rect> tiles, List<Bitmap> bitmaps) {
+        final CountDownLatch done = new CountDownLatch(tiles.size());
+        for (int i = 0; i < tiles.size(); i++) {
+            final Rect tile = tiles.get(i);
+            final Bitmap bitmap = bitmaps.get(i);
+            sExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Canvas canvas = new Canvas(bitmap);
+                        canvas.translate(left - tile.left, top - tile.top);
+                        canvas.drawPicture(picture);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                // The tiles are still being drawn into our bitmaps
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,6 +13,8 @@ import android.annotation.SuppressLint;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.RectF;
 
 import com.facebook.common.logging.FLog;
 import com.facebook.react.bridge.Dynamic;
@@ -20,6 +22,11 @@ import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.common.ReactConstants;
 import com.facebook.react.uimanager.annotations.ReactProp;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
 @SuppressLint("ViewConstructor")
 class UseView extends RenderableView {
     private String mHref;
@@ -64,7 +71,8 @@ class UseView extends RenderableView {
 
     @Override
     void draw(Canvas canvas, Paint paint, float opacity) {
-        VirtualView template = getSvgView().getDefinedTemplate(mHref);
+        SvgView svg = getSvgView();
+        VirtualView template = svg.getDefinedTemplate(mHref);
 
         if (template != null) {
             canvas.translate((float) relativeOnWidth(mX), (float) relativeOnHeight(mY));
@@ -75,14 +83,28 @@ class UseView extends RenderableView {
             int count = template.saveAndSetupCanvas(canvas);
             clip(canvas, paint);
 
-            if (template instanceof SymbolView) {
-                SymbolView symbol = (SymbolView)template;
-                symbol.drawSymbol(canvas, paint, opacity, (float) relativeOnWidth(mW), (float) relativeOnHeight(mH));
-            } else {
-                template.draw(canvas, paint, opacity * mOpacity);
+            float width = (float) relativeOnWidth(mW);
+            float height = (float) relativeOnHeight(mH);
+            if (!(template instanceof SymbolView)) {
+                opacity *= mOpacity;
             }
 
-            this.setClientRect(template.getClientRect());
+            RectF bounds = drawCachedTemplate(template, canvas, paint, opacity, width, height);
+            if (bounds != null) {
+                RectF clientRect = new RectF(bounds);
+                svg.getOutputMatrix(canvas).mapRect(clientRect);
+                this.setClientRect(clientRect);
+                if (svg.isOutputCanvas(canvas)) {
+                    RectF renderBounds = new RectF(clientRect);
+                    renderBounds.inset(-1, -1);
+                    this.setRenderBounds(renderBounds);
+                }
+            } else {
+                this.setClientRect(template.getClientRect());
+                if (svg.isOutputCanvas(canvas)) {
+                    this.setRenderBounds(template.getRenderBounds());
+                }
+            }
 
             template.restoreCanvas(canvas, count);
             if (template instanceof RenderableView) {
@@ -94,9 +116,74 @@ class UseView extends RenderableView {
         }
     }
 
+    /**
+     * Replays the recording of the template when it was already drawn with the same inherited
+     * properties, opacity and size, recording it on the second draw.
+     * Returns the bounds of a replayed recording in the space of the template, or null when
+     * the template was drawn directly.
+     */
+    private @Nullable RectF drawCachedTemplate(VirtualView template, Canvas canvas, Paint paint, float opacity, float width, float height) {
+        List<Object> key = new ArrayList<>();
+        if (template instanceof RenderableView) {
+            ((RenderableView)template).addMergedPropertiesTo(this, key);
+        }
+        key.add(opacity);
+        key.add(width);
+        key.add(height);
+
+        if (template.mTemplateCache == null) {
+            template.mTemplateCache = new TemplateCache();
+        }
+        TemplateCache cache = template.mTemplateCache;
+        TemplateCache.Entry entry = cache.get(key);
+        if (entry != null && entry.recordable && entry.bounds != null) {
+            RectF area = new RectF(entry.bounds);
+            area.inset(-1, -1);
+            if (entry.picture == null) {
+                Picture picture = new Picture();
+                Canvas recordingCanvas = picture.beginRecording(
+                        (int) Math.ceil(area.width()),
+                        (int) Math.ceil(area.height()));
+                recordingCanvas.translate(-area.left, -area.top);
+                drawTemplate(template, recordingCanvas, paint, opacity, width, height);
+                picture.endRecording();
+                entry.picture = picture;
+            }
+            int count = canvas.save();
+            canvas.translate(area.left, area.top);
+            canvas.drawPicture(entry.picture);
+            canvas.restoreToCount(count);
+            return entry.bounds;
+        }
+
+        SvgView svg = getSvgView();
+        boolean bitmapDrawn = svg.isBitmapDrawn();
+        svg.setBitmapDrawn(false);
+        drawTemplate(template, canvas, paint, opacity, width, height);
+        boolean templateBitmapDrawn = svg.isBitmapDrawn();
+        svg.setBitmapDrawn(bitmapDrawn || templateBitmapDrawn);
+
+        if (entry == null) {
+            RectF bounds = template instanceof SymbolView ?
+                    ((SymbolView)template).getSymbolCullBounds(width, height) :
+                    template.getCullBounds();
+            // The cull bounds are replaced by the next rendering
+            cache.put(key, new TemplateCache.Entry(bounds != null ? new RectF(bounds) : null, !templateBitmapDrawn));
+        }
+        return null;
+    }
+
+    private void drawTemplate(VirtualView template, Canvas canvas, Paint paint, float opacity, float width, float height) {
+        if (template instanceof SymbolView) {
+            ((SymbolView)template).drawSymbol(canvas, paint, opacity, width, height);
+        } else {
+            template.draw(canvas, paint, opacity);
+        }
+    }
+
     @Override
     int hitTest(float[] src) {
-        if (!mInvertible || !mTransformInvertible) {
+        if (!mInvertible || !mTransformInvertible || !getSvgView().mayHit(this)) {
             return -1;
         }
 
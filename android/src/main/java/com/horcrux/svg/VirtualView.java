@@ -6,7 +6,6 @@ import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.RectF;
-import android.graphics.Region;
 import android.view.View;
 import android.view.ViewParent;
 
@@ -18,7 +17,6 @@ import com.facebook.react.bridge.ReadableType;
 import com.facebook.react.common.ReactConstants;
 import com.facebook.react.uimanager.DisplayMetricsHolder;
 import com.facebook.react.uimanager.OnLayoutEvent;
-import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.uimanager.events.EventDispatcher;
 import com.facebook.react.views.view.ReactViewGroup;
@@ -61,20 +59,23 @@ abstract public class VirtualView extends ReactViewGroup {
     boolean mInvertible = true;
     boolean mTransformInvertible = true;
     private RectF mClientRect;
+    private @Nullable RectF mRenderBounds;
 
     int mClipRule;
     private @Nullable String mClipPath;
     @Nullable String mMask;
 
-    private static final int CLIP_RULE_EVENODD = 0;
+    static final int CLIP_RULE_EVENODD = 0;
     static final int CLIP_RULE_NONZERO = 1;
 
     final float mScale;
     private boolean mResponsible;
+    private boolean mHasOnLayout;
     String mName;
 
     private SvgView svgView;
     private Path mCachedClipPath;
+    private @Nullable RectF mCachedClipRect;
     private GroupView mTextRoot;
     private double fontSize = -1;
     private double canvasDiagonal = -1;
@@ -86,10 +87,10 @@ abstract public class VirtualView extends ReactViewGroup {
     Path mFillPath;
     Path mStrokePath;
     RectF mBox;
-    Region mRegion;
-    Region mStrokeRegion;
-    Region mClipRegion;
-    Path mClipRegionPath;
+    // Local bounds of the last rendering, to skip nodes outside of the canvas clip
+    @Nullable RectF mCullBounds;
+    // Renderings of this element as the template of use elements
+    @Nullable TemplateCache mTemplateCache;
 
     @Override
     public void invalidate() {
@@ -106,9 +107,18 @@ abstract public class VirtualView extends ReactViewGroup {
         canvasHeight = -1;
         canvasWidth = -1;
         fontSize = -1;
-        mStrokeRegion = null;
-        mRegion = null;
+        HitRegionCache.remove(mFillPath);
+        HitRegionCache.remove(mStrokePath);
         mPath = null;
+        mCullBounds = null;
+        mTemplateCache = null;
+    }
+
+    /**
+     * Drops the path and lengths resolved while rendering a snapshot.
+     */
+    void clearSnapshotCache() {
+        clearCache();
     }
 
     void clearChildCache() {
@@ -282,6 +292,16 @@ abstract public class VirtualView extends ReactViewGroup {
         invalidate();
     }
 
+    @ReactProp(name = "hasOnLayout")
+    public void setHasOnLayout(boolean hasOnLayout) {
+        mHasOnLayout = hasOnLayout;
+        // A new listener receives the current layout
+        SvgView svg = getSvgView();
+        if (hasOnLayout && mClientRect != null && svg != null) {
+            svg.queueLayoutEvent(this);
+        }
+    }
+
     @Nullable Path getClipPath() {
         return mCachedClipPath;
     }
@@ -291,18 +311,8 @@ abstract public class VirtualView extends ReactViewGroup {
             ClipPathView mClipNode = (ClipPathView) getSvgView().getDefinedClipPath(mClipPath);
 
             if (mClipNode != null) {
-                Path clipPath = mClipNode.mClipRule == CLIP_RULE_EVENODD ? mClipNode.getPath(canvas, paint) :
-                        mClipNode.getPath(canvas, paint, Region.Op.UNION);
-                switch (mClipNode.mClipRule) {
-                    case CLIP_RULE_EVENODD:
-                        clipPath.setFillType(Path.FillType.EVEN_ODD);
-                        break;
-                    case CLIP_RULE_NONZERO:
-                        break;
-                    default:
-                        FLog.w(ReactConstants.TAG, "RNSVG: clipRule: " + mClipRule + " unrecognized");
-                }
-                mCachedClipPath = clipPath;
+                mCachedClipPath = mClipNode.getClipPath(canvas, paint);
+                mCachedClipRect = mClipNode.getClipRect();
             } else {
                 FLog.w(ReactConstants.TAG, "RNSVG: Undefined clipPath: " + mClipPath);
             }
@@ -315,7 +325,11 @@ abstract public class VirtualView extends ReactViewGroup {
         Path clip = getClipPath(canvas, paint);
 
         if (clip != null) {
-            canvas.clipPath(clip);
+            if (mCachedClipRect != null) {
+                canvas.clipRect(mCachedClipRect);
+            } else {
+                canvas.clipPath(clip);
+            }
         }
     }
 
@@ -509,6 +523,11 @@ abstract public class VirtualView extends ReactViewGroup {
         if (mClientRect != null && mClientRect.equals(rect)) {
             return;
         }
+        // Snapshots are drawn in their own pixel space
+        SvgView svg = getSvgView();
+        if (svg != null && svg.isSnapshotting()) {
+            return;
+        }
         mClientRect = rect;
         if (mClientRect == null) {
             return;
@@ -528,15 +547,24 @@ abstract public class VirtualView extends ReactViewGroup {
         }
         setMeasuredDimension(width, height);
 
-        EventDispatcher eventDispatcher = mContext
-                .getNativeModule(UIManagerModule.class)
-                .getEventDispatcher();
+        if (mHasOnLayout && svg != null) {
+            svg.queueLayoutEvent(this);
+        }
+    }
+
+    /**
+     * Dispatches the current client rect to the onLayout listener of the node.
+     */
+    void dispatchLayoutEvent(EventDispatcher eventDispatcher) {
+        if (!mHasOnLayout || mClientRect == null) {
+            return;
+        }
         eventDispatcher.dispatchEvent(OnLayoutEvent.obtain(
                 this.getId(),
-                left,
-                top,
-                width,
-                height
+                (int) Math.floor(mClientRect.left),
+                (int) Math.floor(mClientRect.top),
+                (int) Math.ceil(mClientRect.width()),
+                (int) Math.ceil(mClientRect.height())
         ));
     }
 
@@ -544,4 +572,97 @@ abstract public class VirtualView extends ReactViewGroup {
         return mClientRect;
     }
 
+    /**
+     * Sets the device space bounds touched by the last rendering of this node, including
+     * stroke and anti-aliasing outsets. Changes are reported to the {@link SvgView} as damage,
+     * and the bounds are kept in its hit test index.
+     */
+    void setRenderBounds(@Nullable RectF bounds) {
+        SvgView svg = getSvgView();
+        if (svg != null) {
+            svg.indexHitBounds(this, bounds);
+        }
+        if (bounds == null ? mRenderBounds == null : bounds.equals(mRenderBounds)) {
+            return;
+        }
+        if (svg != null) {
+            svg.addDamage(mRenderBounds);
+            svg.addDamage(bounds);
+        }
+        mRenderBounds = bounds;
+    }
+
+    @Nullable RectF getRenderBounds() {
+        return mRenderBounds;
+    }
+
+    /**
+     * Returns the local bounds of the last rendering of the node, or null if unknown.
+     */
+    @Nullable RectF getCullBounds() {
+        return null;
+    }
+
+    /**
+     * Returns true if the last rendering of the node lies outside of the canvas clip, the
+     * canvas being set up for drawing the node. Such nodes are skipped.
+     */
+    boolean quickReject(Canvas canvas) {
+        RectF bounds = getCullBounds();
+        return bounds != null && canvas.quickReject(bounds, Canvas.EdgeType.AA);
+    }
+
+    /**
+     * Adds the bounds of the last rendering, in the space of the parent, to the given bounds.
+     * Returns false if they are unknown.
+     */
+    boolean addCullBoundsTo(RectF bounds) {
+        RectF cullBounds = getCullBounds();
+        if (cullBounds == null) {
+            return false;
+        }
+        RectF mapped = new RectF(cullBounds);
+        Matrix matrix = new Matrix(mMatrix);
+        matrix.preConcat(mTransform);
+        matrix.mapRect(mapped);
+        bounds.union(mapped);
+        return true;
+    }
+
+    /**
+     * Keeps the hit test index entries of a skipped subtree, whose render bounds didn't change.
+     */
+    void keepRenderBounds() {
+        SvgView svg = getSvgView();
+        if (svg != null) {
+            svg.indexHitBounds(this, mRenderBounds);
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            View node = getChildAt(i);
+            if (node instanceof VirtualView) {
+                ((VirtualView) node).keepRenderBounds();
+            }
+        }
+    }
+
+    /**
+     * Returns true if this node is, or is part of, a definition which other nodes can reference,
+     * so that changes to it can affect the rendering outside of its own bounds.
+     */
+    boolean isDefinition() {
+        ViewParent node = this;
+        while (node instanceof VirtualView) {
+            if (((VirtualView) node).mName != null ||
+                    node instanceof DefinitionView ||
+                    node instanceof ClipPathView ||
+                    node instanceof MaskView ||
+                    node instanceof PatternView ||
+                    node instanceof SymbolView) {
+                return true;
+            }
+            node = node.getParent();
+        }
+        return false;
+    }
+
 }
@@ -7,11 +7,19 @@ import {
 } from 'react-native';
 import extractResponder from '../lib/extract/extractResponder';
 import extractViewBox from '../lib/extract/extractViewBox';
+import extractColor from '../lib/extract/extractColor';
 import Shape from './Shape';
 import G from './G';
 
 const RNSVGSvgViewManager = NativeModules.RNSVGSvgViewManager;
 
+// Resolves the background color of snapshots, unparsable colors are left to be rejected natively
+function extractSnapshotOptions(options) {
+  const { backgroundColor } = options || {};
+  const color = backgroundColor == null ? null : extractColor(backgroundColor);
+  return color == null ? options || {} : { ...options, backgroundColor: color };
+}
+
 const styles = StyleSheet.create({
   svg: {
     backgroundColor: 'transparent',
@@ -54,6 +62,26 @@ export default class Svg extends Shape {
       RNSVGSvgViewManager.toDataURL(findNodeHandle(this.root), callback);
   };
 
+  toDataURLAsync = options => {
+    const tag = findNodeHandle(this.root);
+    if (!RNSVGSvgViewManager.toDataURLAsync) {
+      // Only PNG is supported without the native async method
+      return new Promise(resolve => RNSVGSvgViewManager.toDataURL(tag, resolve));
+    }
+    return RNSVGSvgViewManager.toDataURLAsync(
+      tag,
+      extractSnapshotOptions(options),
+    );
+  };
+
+  toFile = options =>
+    RNSVGSvgViewManager.toFile
+      ? RNSVGSvgViewManager.toFile(
+          findNodeHandle(this.root),
+          extractSnapshotOptions(options),
+        )
+      : Promise.reject(new Error('toFile is not supported on this platform'));
+
   render() {
     const {
       opacity,
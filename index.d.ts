@@ -311,10 +311,30 @@ export interface SvgProps extends ReactNative.ViewProperties {
   height?: NumberProp,
   viewBox?: string,
   preserveAspectRatio?: string,
+  renderMode?: 'bitmap' | 'picture' | 'background' | 'tiled',
+  backgroundRenderPolicy?: 'stale' | 'block',
+}
+
+export interface SnapshotOptions {
+  format?: 'png' | 'jpeg' | 'jpg' | 'webp',
+  quality?: number,
+  width?: number,
+  height?: number,
+  scale?: number,
+  region?: { x?: number, y?: number, width: number, height: number },
+  backgroundColor?: string | number,
+}
+
+export interface FileSnapshotOptions extends SnapshotOptions {
+  path?: string,
 }
 
 // Svg is both regular and default exported
-export const Svg: React.ComponentClass<SvgProps>;
+export class Svg extends React.Component<SvgProps> {
+  toDataURL(callback: (base64: string) => void): void;
+  toDataURLAsync(options?: SnapshotOptions): Promise<string>;
+  toFile(options?: FileSnapshotOptions): Promise<string>;
+}
 export default Svg;
 
 export interface SymbolProps {
@@ -30,6 +30,11 @@ export default function extractProps(props, ref) {
     ...extractStroke(props, styleProperties),
   };
 
+  if (onLayout) {
+    // Native only measures and reports the layout of nodes with a listener
+    extractedProps.hasOnLayout = true;
+  }
+
   if (id) {
     extractedProps.name = id;
   }